@@ -0,0 +1,32 @@
+package collabai.group21;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the party with the usual JMH command line, for
+ * example {@code java -jar target/benchmarks.jar Negotiation -p domain=6x7}.
+ * The GC profiler is always added, so every result comes with the allocation
+ * rate and the number of collections. Unless another result file is asked
+ * for, the results are also written to jmh-result.json, to compare with the
+ * results of earlier builds.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+        if (!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,169 @@
+package collabai.group21;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import geniusweb.issuevalue.Bid;
+
+/**
+ * Measures the steps of a turn of {@link Group21Party} on their own, on a
+ * party that played a number of turns of a {@link PartyFixture}. The private
+ * methods of the party are called through method handles, so the party does
+ * not have to open them up for the benchmarks.
+ * <p>
+ * The party's state does not change during a measurement: bids are planned
+ * but not sent, and the opponent model that is updated is a separate one,
+ * with a history that keeps as many bids as the history length. That model
+ * is rebuilt for every iteration, so every iteration counts the same
+ * offers from the start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Group21PartyBenchmark {
+
+    private static final MethodHandle GET_BID_GOALS = handle("getBidGoals", int.class);
+    private static final MethodHandle MAKE_BID = handle("makeBid", int.class, BidGoals.class,
+            SplittableRandom.class, SearchBudget.class);
+    private static final MethodHandle GET_OUR_UTILITY = handle("getOurUtility", Bid.class);
+    private static final MethodHandle GET_OUR_CONSTANTS = handle("getOurConstants");
+    private static final MethodHandle GET_THEIR_CONSTANTS = handle("getTheirConstants");
+
+    /**
+     * Number of distinct bids the per bid benchmarks cycle through.
+     */
+    private static final int BIDS = 256;
+
+    /**
+     * The size of the domain as issues x values. The largest is too large to
+     * index, so its bids are built by the {@link BranchAndBoundSearch}.
+     */
+    @Param({ "4x5", "6x7", "8x8" })
+    public String domain;
+
+    /**
+     * The number of turns played before the measurement.
+     */
+    @Param({ "10", "60" })
+    public int history;
+
+    private PartyFixture fixture;
+    private Group21Party party;
+    private SplittableRandom random;
+    private Bid[] bids;
+    private int next;
+    private CompiledUtilitySpace space;
+    private BidInterner interner;
+    private int[] ids;
+    private double[] utilities;
+    private Opponent opponent;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        fixture = new PartyFixture(domain);
+        fixture.play(history);
+        party = fixture.getParty();
+        random = new SplittableRandom(3);
+
+        space = new CompiledUtilitySpace(fixture.getProfile(), false);
+        interner = new BidInterner(space.getEncoder());
+        bids = new Bid[BIDS];
+        ids = new int[BIDS];
+        utilities = new double[BIDS];
+        for (int n = 0; n < BIDS; n++) {
+            bids[n] = (n < BIDS / 2) ? fixture.nextBid() : fixture.randomBid();
+            ids[n] = interner.intern(bids[n]);
+            utilities[n] = space.getUtility(bids[n]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupOpponent() {
+        opponent = new Opponent(new NegotiationHistory(interner, history).getOpponentBids(PartyFixture.OTHER));
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (BIDS - 1);
+        return next;
+    }
+
+    /**
+     * The planning of our next bid, from working out its goals to the search.
+     */
+    @Benchmark
+    public Object makeBid() throws Throwable {
+        int round = fixture.getRound();
+        BidGoals goals = (BidGoals) GET_BID_GOALS.invoke(party, round);
+        return MAKE_BID.invoke(party, round, goals, random, SearchBudget.UNLIMITED);
+    }
+
+    @Benchmark
+    public double getOurUtility() throws Throwable {
+        return (double) GET_OUR_UTILITY.invoke(party, bids[nextIndex()]);
+    }
+
+    @Benchmark
+    public double[] getOurConstants() throws Throwable {
+        return (double[]) GET_OUR_CONSTANTS.invoke(party);
+    }
+
+    @Benchmark
+    public double[] getTheirConstants() throws Throwable {
+        return (double[]) GET_THEIR_CONSTANTS.invoke(party);
+    }
+
+    /**
+     * The update of the opponent model with an offer, together with the
+     * classification of the offer and the history and statistics that come
+     * with it. Every offer takes a reference to its id, as an interned offer
+     * of the party does, which the history gives back when it drops the offer.
+     */
+    @Benchmark
+    public Opponent updateOpponentModel() {
+        int n = nextIndex();
+        interner.retain(ids[n]);
+        opponent.receive(interner, ids[n], utilities[n], space.getEncoder());
+        return opponent;
+    }
+
+    /**
+     * @return a handle on a private method of {@link Group21Party}
+     * @throws IllegalStateException if there is no such method
+     */
+    private static MethodHandle handle(String name, Class<?>... parameterTypes) {
+        try {
+            Method method = Group21Party.class.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Group21Party has no method " + name, e);
+        }
+    }
+}
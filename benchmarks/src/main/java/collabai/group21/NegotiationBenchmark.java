@@ -0,0 +1,74 @@
+package collabai.group21;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import geniusweb.actions.Action;
+
+/**
+ * Measures the full handling of the informs of a turn by
+ * {@link Group21Party#notifyChange}: the {@link geniusweb.inform.ActionDone}
+ * with the opponent's offer and the {@link geniusweb.inform.YourTurn} on
+ * which the party decides and bids. A turn changes the state of the party, so
+ * every iteration starts from a fresh {@link PartyFixture} that played the
+ * history length, and measures the time of the next {@link #TURNS} turns.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = NegotiationBenchmark.TURNS)
+@Measurement(iterations = 20, batchSize = NegotiationBenchmark.TURNS)
+@Fork(1)
+@State(Scope.Thread)
+public class NegotiationBenchmark {
+
+    /**
+     * Number of turns per iteration. Together with the longest history this
+     * stays below round 175 of the party, see {@link PartyFixture#ROUNDS}.
+     */
+    static final int TURNS = 25;
+
+    /**
+     * The size of the domain as issues x values.
+     */
+    @Param({ "4x5", "6x7", "8x8" })
+    public String domain;
+
+    /**
+     * The number of turns played before the measured turns.
+     */
+    @Param({ "10", "60" })
+    public int history;
+
+    private PartyFixture fixture;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        fixture = new PartyFixture(domain);
+        fixture.play(history);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Action turn() {
+        fixture.turn();
+        return fixture.getLastAction();
+    }
+}
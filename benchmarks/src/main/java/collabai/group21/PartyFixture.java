@@ -0,0 +1,239 @@
+package collabai.group21;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import geniusweb.actions.Action;
+import geniusweb.actions.Offer;
+import geniusweb.actions.PartyId;
+import geniusweb.connection.ConnectionEnd;
+import geniusweb.inform.ActionDone;
+import geniusweb.inform.Inform;
+import geniusweb.inform.Settings;
+import geniusweb.inform.YourTurn;
+import geniusweb.issuevalue.Bid;
+import geniusweb.profile.Profile;
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+import geniusweb.progress.ProgressRounds;
+import geniusweb.references.Parameters;
+import geniusweb.references.ProfileRef;
+import geniusweb.references.ProtocolRef;
+import geniusweb.references.Reference;
+import tudelft.utilities.listener.DefaultListenable;
+
+/**
+ * A {@link Group21Party} in a bilateral negotiation against a scripted
+ * opponent that concedes a fixed step of its own utility every turn. The
+ * profiles of the party and the opponent are the two profiles of a
+ * {@link ProfileGenerator} with random weights and an opposition of 0.5, and
+ * the opponent's bids are built with a {@link BranchAndBoundSearch}, so
+ * domains of every size can be used. The party uses a fixed seed and an
+ * unlimited search budget, so a fixture always plays the same negotiation.
+ */
+final class PartyFixture {
+
+    static final PartyId ME = new PartyId("group21");
+    static final PartyId OTHER = new PartyId("other");
+
+    /**
+     * The deadline of the negotiation. The party counts every inform as a
+     * round, and from round 175 it accepts by ACTime, so a fixture should
+     * stay below 87 turns to measure the normal bidding.
+     */
+    static final int ROUNDS = 200;
+
+    /**
+     * The utility the opponent concedes per turn.
+     */
+    private static final double STEP = 0.005;
+
+    private static final ObjectMapper jackson = new ObjectMapper();
+
+    private final Group21Party party = new Group21Party();
+    private final Connection connection = new Connection();
+    private final Path profileFile;
+    private final LinearAdditiveUtilitySpace ours;
+    private final CompiledUtilitySpace theirs;
+    private final BranchAndBoundSearch theirSearch;
+    private final SplittableRandom random = new SplittableRandom(2);
+    private Bid lastBid;
+    private int turns = 0;
+
+    /**
+     * @param domain the size of the domain, see {@link #parseSize(String)}
+     * @throws IOException if the profile can not be stored for the party
+     */
+    PartyFixture(String domain) throws IOException {
+        int[] size = parseSize(domain);
+        ProfileGenerator generator = new ProfileGenerator("random" + size[0] + "x" + size[1], size[0], size[1],
+                ProfileGenerator.Weights.RANDOM, 0.5, 1);
+        byte[] profileJson = write(generator, 1);
+        ours = read(profileJson);
+        theirs = new CompiledUtilitySpace(read(write(generator, 2)), false);
+        theirSearch = new BranchAndBoundSearch(theirs);
+        profileFile = Files.createTempFile("group21-benchmark", ".json");
+        Files.write(profileFile, profileJson);
+
+        URI profile;
+        try {
+            profile = new URI("file:" + profileFile.toAbsolutePath());
+        } catch (URISyntaxException e) {
+            throw new IOException("Can not refer to the profile", e);
+        }
+        Parameters parameters = new Parameters().with("seed", 1).with("searchBudget", 0);
+        party.connect(connection);
+        connection.notifyListeners(new Settings(ME, new ProfileRef(profile), new ProtocolRef("SAOP"),
+                new ProgressRounds(ROUNDS, 0, new Date(Long.MAX_VALUE)), parameters));
+    }
+
+    /**
+     * @param domain the size of the domain as issues x values, like "6x7"
+     * @return the number of issues and the number of values of every issue
+     * @throws IllegalArgumentException if the size is not of that form
+     */
+    private static int[] parseSize(String domain) {
+        String[] parts = domain.split("x");
+        if (parts.length != 2)
+            throw new IllegalArgumentException("Domain size must be issues x values, like 6x7, not " + domain);
+        return new int[] { Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()) };
+    }
+
+    Group21Party getParty() {
+        return party;
+    }
+
+    /**
+     * @return the profile of the party
+     */
+    LinearAdditiveUtilitySpace getProfile() {
+        return ours;
+    }
+
+    /**
+     * @return the number of turns played
+     */
+    int getTurns() {
+        return turns;
+    }
+
+    /**
+     * @return the number of informs the party handled, which the party
+     *         counts as its rounds
+     */
+    int getRound() {
+        return 1 + 2 * turns;
+    }
+
+    /**
+     * @return the last action of the party, or null if it did not act yet
+     */
+    Action getLastAction() {
+        return connection.last;
+    }
+
+    /**
+     * Plays one turn: the opponent's next offer arrives, then it is the
+     * party's turn.
+     */
+    void turn() {
+        connection.notifyListeners(new ActionDone(new Offer(OTHER, nextBid())));
+        connection.notifyListeners(new YourTurn());
+        turns++;
+    }
+
+    /**
+     * @param turns the number of turns to play
+     */
+    void play(int turns) {
+        for (int n = 0; n < turns; n++)
+            turn();
+    }
+
+    /**
+     * @return the next bid of the opponent, with its utility one step below
+     *         its previous bid
+     */
+    Bid nextBid() {
+        double goal = theirSearch.getMax() - STEP * turns;
+        List<int[]> found = theirSearch.search(goal - 2 * STEP, goal, null, 0, 0, 1, random,
+                SearchBudget.UNLIMITED);
+        if (!found.isEmpty())
+            lastBid = theirs.getEncoder().decode(found.get(0), 0);
+        else if (lastBid == null)
+            lastBid = randomBid();
+        return lastBid;
+    }
+
+    /**
+     * @return a uniformly random bid in the domain, as the search starts at a
+     *         random value of every issue
+     */
+    Bid randomBid() {
+        return theirs.getEncoder().decode(theirSearch.search(0, 1, null, 0, 0, 1, random,
+                SearchBudget.UNLIMITED).get(0), 0);
+    }
+
+    /**
+     * @return the JSON of a profile of the generator
+     */
+    private static byte[] write(ProfileGenerator generator, int party) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeProfile(party, out);
+        return out.toByteArray();
+    }
+
+    private static LinearAdditiveUtilitySpace read(byte[] json) throws IOException {
+        return (LinearAdditiveUtilitySpace) jackson.readValue(new String(json, StandardCharsets.UTF_8),
+                Profile.class);
+    }
+
+    /**
+     * Removes the stored profile.
+     * @throws IOException if it can not be removed
+     */
+    void close() throws IOException {
+        Files.deleteIfExists(profileFile);
+    }
+
+    /**
+     * Connection that keeps the last action of the party.
+     */
+    private static final class Connection extends DefaultListenable<Inform>
+            implements ConnectionEnd<Inform, Action> {
+        private Action last;
+
+        @Override
+        public void send(Action action) {
+            last = action;
+        }
+
+        @Override
+        public Reference getReference() {
+            return null;
+        }
+
+        @Override
+        public URI getRemoteURI() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Error getError() {
+            return null;
+        }
+    }
+}
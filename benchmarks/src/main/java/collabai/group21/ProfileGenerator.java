@@ -0,0 +1,294 @@
+package collabai.group21;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes synthetic GeniusWeb domains and the two linear additive profiles of a
+ * bilateral negotiation on them, as the JSON that the profile connections of
+ * GeniusWeb read. The issues are named issue0, issue1, ... and their values
+ * value0, value1, ..., like those of the random profiles of the party's
+ * tests. The domain has the given name though, and domains with different
+ * names are never equal, so the profiles are not on the domain of the tests.
+ * The benchmarks use them for both sides of their negotiations.
+ * <p>
+ * The output is streamed: the values and their utilities are written as they
+ * are drawn, and only the weights are kept, so the time and memory do not
+ * depend on the number of bids of the domain but on the number of values.
+ * Every issue draws from its own random generator, split from the seed, so
+ * both profiles can be written one after the other and agree on the shared
+ * draws without keeping them.
+ * <p>
+ * The opposition is the chance that the second profile reverses the utility
+ * of a value in the first one. At 0 both parties have the same preferences
+ * over the values, at 1 exactly the opposite ones, and in between the
+ * profiles partly agree. The weights of the two profiles are drawn
+ * independently.
+ * <p>
+ * From the command line it takes the output directory, the number of issues,
+ * the number of values per issue, and optionally the weight distribution,
+ * the opposition and the seed, and writes the domain and both profiles to
+ * &lt;name&gt;.json, &lt;name&gt;1.json and &lt;name&gt;2.json, like the jobs
+ * domain of the simple runner.
+ */
+public final class ProfileGenerator {
+
+    /**
+     * Distributions of the issue weights of a profile.
+     */
+    public enum Weights {
+        /**
+         * All issues weigh the same.
+         */
+        UNIFORM,
+        /**
+         * Every issue gets a uniformly random share.
+         */
+        RANDOM,
+        /**
+         * The weight of an issue is inversely proportional to its rank in a
+         * random order of the issues, so a few issues dominate.
+         */
+        SKEWED
+    }
+
+    /**
+     * Number of decimals of the weights and value utilities.
+     */
+    private static final int SCALE = 4;
+
+    private static final JsonFactory json = new JsonFactory();
+
+    private final String name;
+    private final int issues;
+    private final int values;
+    private final Weights weights;
+    private final double opposition;
+    private final long seed;
+
+    /**
+     * @param name       the name of the domain, the profiles are named after
+     *                   it with 1 and 2 appended
+     * @param issues     number of issues
+     * @param values     number of values of every issue
+     * @param weights    the distribution of the issue weights
+     * @param opposition the chance, from 0 to 1, that the second profile
+     *                   reverses the utility of a value
+     * @param seed       the seed for all random draws
+     * @throws IllegalArgumentException if a size is not positive or the
+     *                                  opposition is not between 0 and 1
+     */
+    public ProfileGenerator(String name, int issues, int values, Weights weights, double opposition, long seed) {
+        if (issues < 1 || values < 1)
+            throw new IllegalArgumentException("Need at least one issue and one value, not " + issues + "x" + values);
+        if (!(opposition >= 0 && opposition <= 1))
+            throw new IllegalArgumentException("Opposition must be between 0 and 1, not " + opposition);
+        this.name = name;
+        this.issues = issues;
+        this.values = values;
+        this.weights = weights;
+        this.opposition = opposition;
+        this.seed = seed;
+    }
+
+    /**
+     * @return the number of bids in the domain, saturated at
+     *         {@link Long#MAX_VALUE}
+     */
+    public long getBidCount() {
+        long count = 1;
+        for (int i = 0; i < issues; i++) {
+            if (count > Long.MAX_VALUE / values)
+                return Long.MAX_VALUE;
+            count *= values;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the domain.
+     * @param out the stream to write to, which is not closed
+     * @throws IOException if writing fails
+     */
+    public void writeDomain(OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            writeDomain(generator);
+        }
+    }
+
+    /**
+     * Writes a profile.
+     * @param party 1 for the first profile, 2 for the second
+     * @param out   the stream to write to, which is not closed
+     * @throws IOException              if writing fails
+     * @throws IllegalArgumentException if the party is not 1 or 2
+     */
+    public void writeProfile(int party, OutputStream out) throws IOException {
+        if (party != 1 && party != 2)
+            throw new IllegalArgumentException("Party must be 1 or 2, not " + party);
+        BigDecimal[] issueWeights = drawWeights(party);
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("LinearAdditiveUtilitySpace");
+
+            generator.writeObjectFieldStart("issueUtilities");
+            for (int i = 0; i < issues; i++) {
+                generator.writeObjectFieldStart(getIssue(i));
+                generator.writeObjectFieldStart("discreteutils");
+                generator.writeObjectFieldStart("valueUtilities");
+                SplittableRandom random = getIssueRandom(i);
+                for (int v = 0; v < values; v++) {
+                    // always draw both, so the draws of the next values are the same for both parties
+                    BigDecimal utility = BigDecimal.valueOf(random.nextInt(10001), SCALE);
+                    boolean reversed = random.nextDouble() < opposition;
+                    if (party == 2 && reversed)
+                        utility = BigDecimal.ONE.subtract(utility);
+                    generator.writeNumberField(getValue(v), utility);
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("issueWeights");
+            for (int i = 0; i < issues; i++)
+                generator.writeNumberField(getIssue(i), issueWeights[i]);
+            generator.writeEndObject();
+
+            generator.writeFieldName("domain");
+            writeDomain(generator);
+            generator.writeStringField("name", name + party);
+
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the domain and both profiles to files named after the domain.
+     * @param dir the directory to write to
+     * @throws IOException if writing fails
+     */
+    public void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (OutputStream out = Files.newOutputStream(dir.resolve(name + ".json"))) {
+            writeDomain(out);
+        }
+        for (int party = 1; party <= 2; party++) {
+            try (OutputStream out = Files.newOutputStream(dir.resolve(name + party + ".json"))) {
+                writeProfile(party, out);
+            }
+        }
+    }
+
+    private void writeDomain(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", name);
+        generator.writeObjectFieldStart("issuesValues");
+        for (int i = 0; i < issues; i++) {
+            generator.writeObjectFieldStart(getIssue(i));
+            generator.writeArrayFieldStart("values");
+            for (int v = 0; v < values; v++)
+                generator.writeString(getValue(v));
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return the weights of the issues of the party, with {@link #SCALE}
+     *         decimals and a sum of exactly 1
+     */
+    private BigDecimal[] drawWeights(int party) {
+        SplittableRandom random = getRandom(-party);
+        double[] shares = new double[issues];
+        switch (weights) {
+        case UNIFORM:
+            for (int i = 0; i < issues; i++)
+                shares[i] = 1;
+            break;
+        case RANDOM:
+            for (int i = 0; i < issues; i++)
+                shares[i] = random.nextDouble();
+            break;
+        case SKEWED:
+            for (int i = 0; i < issues; i++) {
+                int rank = random.nextInt(i + 1);
+                shares[i] = shares[rank];
+                shares[rank] = 1.0 / (i + 1);
+            }
+            break;
+        }
+        double total = 0;
+        for (double share : shares)
+            total += share;
+
+        BigDecimal[] result = new BigDecimal[issues];
+        BigDecimal remaining = BigDecimal.ONE;
+        for (int i = 0; i < issues - 1; i++) {
+            result[i] = BigDecimal.valueOf(shares[i] / total).setScale(SCALE, RoundingMode.DOWN);
+            remaining = remaining.subtract(result[i]);
+        }
+        result[issues - 1] = remaining;
+        return result;
+    }
+
+    /**
+     * @return the generator of the value utilities of the issue, the same for
+     *         both parties
+     */
+    private SplittableRandom getIssueRandom(int issue) {
+        return getRandom(issue + 1);
+    }
+
+    /**
+     * @param stream the number of the stream
+     * @return an independent generator for every number
+     */
+    private SplittableRandom getRandom(long stream) {
+        return new SplittableRandom(seed + 0x9E3779B97F4A7C15L * stream);
+    }
+
+    private static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = json.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static String getIssue(int issue) {
+        return "issue" + issue;
+    }
+
+    private static String getValue(int value) {
+        return "value" + value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: ProfileGenerator dir issues values [UNIFORM|RANDOM|SKEWED] [opposition] [seed]");
+            System.exit(1);
+        }
+        int issues = Integer.parseInt(args[1]);
+        int values = Integer.parseInt(args[2]);
+        Weights weights = (args.length > 3) ? Weights.valueOf(args[3]) : Weights.RANDOM;
+        double opposition = (args.length > 4) ? Double.parseDouble(args[4]) : 0.5;
+        long seed = (args.length > 5) ? Long.parseLong(args[5]) : 0;
+        ProfileGenerator generator = new ProfileGenerator("random" + issues + "x" + values, issues, values,
+                weights, opposition, seed);
+        generator.write(Paths.get(args[0]));
+        System.out.println("Wrote " + generator.getBidCount() + " bids to " + args[0]);
+    }
+}
@@ -0,0 +1,99 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import geniusweb.issuevalue.DiscreteValue;
+import geniusweb.issuevalue.Domain;
+import geniusweb.profile.Profile;
+import geniusweb.profile.utilityspace.DiscreteValueSetUtilities;
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+
+public class ProfileGeneratorTest {
+
+    private final static ObjectMapper jackson = new ObjectMapper();
+
+    private static LinearAdditiveUtilitySpace read(ProfileGenerator generator, int party) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeProfile(party, out);
+        return (LinearAdditiveUtilitySpace) jackson.readValue(new String(out.toByteArray(), StandardCharsets.UTF_8),
+                Profile.class);
+    }
+
+    private static BigDecimal getUtility(LinearAdditiveUtilitySpace profile, int issue, int value) {
+        return ((DiscreteValueSetUtilities) profile.getUtilities().get("issue" + issue)).getUtilities()
+                .get(new DiscreteValue("value" + value));
+    }
+
+    @Test
+    public void testDomain() throws IOException {
+        ProfileGenerator generator = new ProfileGenerator("test", 3, 4, ProfileGenerator.Weights.RANDOM, 0.5, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeDomain(out);
+        Domain domain = jackson.readValue(new String(out.toByteArray(), StandardCharsets.UTF_8), Domain.class);
+
+        assertEquals("test", domain.getName());
+        assertEquals(3, domain.getIssues().size());
+        assertEquals(64, generator.getBidCount());
+        assertEquals(domain, read(generator, 1).getDomain());
+        assertEquals("test2", read(generator, 2).getName());
+    }
+
+    @Test
+    public void testWeightsSumToOne() throws IOException {
+        for (ProfileGenerator.Weights weights : ProfileGenerator.Weights.values()) {
+            ProfileGenerator generator = new ProfileGenerator("test", 7, 3, weights, 0.5, 2);
+            for (int party = 1; party <= 2; party++) {
+                BigDecimal sum = BigDecimal.ZERO;
+                for (BigDecimal weight : read(generator, party).getWeights().values())
+                    sum = sum.add(weight);
+                assertEquals(0, BigDecimal.ONE.compareTo(sum));
+            }
+        }
+    }
+
+    private static ProfileGenerator uniform(double opposition) {
+        return new ProfileGenerator("test", 5, 6, ProfileGenerator.Weights.UNIFORM, opposition, 3);
+    }
+
+    @Test
+    public void testOpposition() throws IOException {
+        LinearAdditiveUtilitySpace same1 = read(uniform(0), 1);
+        LinearAdditiveUtilitySpace same2 = read(uniform(0), 2);
+        LinearAdditiveUtilitySpace opposed1 = read(uniform(1), 1);
+        LinearAdditiveUtilitySpace opposed2 = read(uniform(1), 2);
+        for (int issue = 0; issue < 5; issue++) {
+            for (int value = 0; value < 6; value++) {
+                assertEquals(getUtility(same1, issue, value), getUtility(same2, issue, value));
+                assertEquals(getUtility(same1, issue, value), getUtility(opposed1, issue, value));
+                assertEquals(0, BigDecimal.ONE.compareTo(getUtility(opposed1, issue, value)
+                        .add(getUtility(opposed2, issue, value))));
+            }
+        }
+    }
+
+    @Test
+    public void testSeeded() throws IOException {
+        ProfileGenerator generator = new ProfileGenerator("test", 4, 5, ProfileGenerator.Weights.SKEWED, 0.3, 4);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        generator.writeProfile(2, first);
+        new ProfileGenerator("test", 4, 5, ProfileGenerator.Weights.SKEWED, 0.3, 4).writeProfile(2, second);
+        assertTrue(first.size() > 0);
+        assertEquals(first.toString("UTF-8"), second.toString("UTF-8"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOppositionOutOfRange() {
+        new ProfileGenerator("test", 4, 5, ProfileGenerator.Weights.RANDOM, 1.5, 0);
+    }
+}
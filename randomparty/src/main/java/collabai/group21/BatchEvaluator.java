@@ -0,0 +1,102 @@
+package collabai.group21;
+
+/**
+ * Evaluates batches of bids in structure-of-arrays layout: the value indices
+ * of the bids in the batch are stored per issue, in one int array per issue.
+ * The utilities are then computed issue by issue over the whole batch, so the
+ * inner loop gathers one table entry per bid and adds it to consecutive
+ * results. That loop is the {@link BatchKernel}, which uses the Vector API
+ * when the runtime has it. For every bid the terms are added in issue order,
+ * like the scalar evaluations, so the results are exactly the same.
+ * <p>
+ * An evaluator is not thread-safe; every thread uses its own.
+ */
+final class BatchEvaluator {
+
+    /**
+     * The number of bids in a full batch.
+     */
+    static final int BATCH_SIZE = JointUtilityGrid.BLOCK_SIZE;
+
+    private final BatchKernel kernel;
+    private final int[][] columns;
+    /**
+     * The sums of the fractions of the bids. A fraction is at most 10000, so
+     * the sums fit in an int for domains of fewer than 200000 issues.
+     */
+    private final int[] fractionSums = new int[BATCH_SIZE];
+    private int size = 0;
+
+    /**
+     * @param issueCount the number of issues of the domain
+     */
+    BatchEvaluator(int issueCount) {
+        this(issueCount, BatchKernel.DEFAULT);
+    }
+
+    /**
+     * @param issueCount the number of issues of the domain
+     * @param kernel     the inner loops
+     */
+    BatchEvaluator(int issueCount, BatchKernel kernel) {
+        this.kernel = kernel;
+        this.columns = new int[issueCount][BATCH_SIZE];
+    }
+
+    /**
+     * Empties the batch.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of bids in the batch
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == BATCH_SIZE;
+    }
+
+    /**
+     * @param index    an index of the domain
+     * @param position the position of the bid to add to the batch
+     * @throws IndexOutOfBoundsException if the batch is full
+     */
+    void add(BidSpaceIndex index, int position) {
+        for (int i = 0; i < columns.length; i++)
+            columns[i][size] = index.getValueIndex(position, i);
+        size++;
+    }
+
+    /**
+     * @param space  the compiled profile
+     * @param result receives the utility of the bids in the batch, in the
+     *               order they were added
+     * @param offset the position in result for the first bid
+     */
+    void getUtilities(CompiledUtilitySpace space, double[] result, int offset) {
+        for (int n = 0; n < size; n++)
+            result[offset + n] = 0;
+        for (int i = 0; i < columns.length; i++)
+            kernel.add(space.getWeightedUtilities(i), columns[i], result, offset, size);
+    }
+
+    /**
+     * @param model  the opponent model, which must be ready
+     * @param result receives the modelled opponent utility of the bids in
+     *               the batch, in the order they were added
+     * @param offset the position in result for the first bid
+     */
+    void getUtilities(IncrementalOpponentModel model, double[] result, int offset) {
+        for (int n = 0; n < size; n++)
+            fractionSums[n] = 0;
+        for (int i = 0; i < columns.length; i++)
+            kernel.add(model.getFractions(i), columns[i], fractionSums, size);
+        for (int n = 0; n < size; n++)
+            result[offset + n] = model.toUtility(fractionSums[n]);
+    }
+}
@@ -0,0 +1,65 @@
+package collabai.group21;
+
+/**
+ * The inner loops of a {@link BatchEvaluator}, which add one table entry per
+ * bid to the results of the bids in a batch. The entries are added to the
+ * results one by one in every lane, so all kernels give exactly the same
+ * results.
+ * <p>
+ * The {@link #VECTOR} kernel uses the incubating Vector API. It is only
+ * compiled for Java 17 and later, into the versioned part of the jar, and
+ * only available when the runtime was started with
+ * {@code --add-modules jdk.incubator.vector}. Like the events of
+ * {@link PartyEvents} it is only loaded after that check, so the party still
+ * runs on Java 8.
+ */
+abstract class BatchKernel {
+
+    /**
+     * The plain loops, which the JIT may or may not vectorise.
+     */
+    static final BatchKernel SCALAR = new BatchKernel() {
+        @Override
+        void add(double[] table, int[] column, double[] result, int offset, int size) {
+            for (int n = 0; n < size; n++)
+                result[offset + n] += table[column[n]];
+        }
+
+        @Override
+        void add(int[] table, int[] column, int[] result, int size) {
+            for (int n = 0; n < size; n++)
+                result[n] += table[column[n]];
+        }
+    };
+
+    /**
+     * The kernel that gathers the entries with the Vector API, or null if
+     * the runtime does not have it.
+     */
+    static final BatchKernel VECTOR = loadVector();
+
+    /**
+     * The kernel of new evaluators: {@link #VECTOR} if it is available,
+     * otherwise {@link #SCALAR}.
+     */
+    static final BatchKernel DEFAULT = VECTOR != null ? VECTOR : SCALAR;
+
+    /**
+     * Adds table[column[n]] to result[offset + n] for all n below size.
+     */
+    abstract void add(double[] table, int[] column, double[] result, int offset, int size);
+
+    /**
+     * Adds table[column[n]] to result[n] for all n below size.
+     */
+    abstract void add(int[] table, int[] column, int[] result, int size);
+
+    private static BatchKernel loadVector() {
+        try {
+            return (BatchKernel) Class.forName("collabai.group21.VectorBatchKernel").getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
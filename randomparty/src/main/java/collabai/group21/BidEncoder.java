@@ -0,0 +1,131 @@
+package collabai.group21;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geniusweb.issuevalue.Bid;
+import geniusweb.issuevalue.Domain;
+import geniusweb.issuevalue.Value;
+import geniusweb.issuevalue.ValueSet;
+
+/**
+ * Translates between {@link Bid}s and int value-index tuples. Issues are
+ * numbered in sorted name order and the values of an issue in the order of
+ * their {@link ValueSet}, so two encoders of the same domain always agree.
+ */
+final class BidEncoder {
+
+    private final Domain domain;
+    private final String[] issues;
+    private final Value[][] values;
+    private final List<Map<Value, Integer>> valueIndices = new ArrayList<>();
+
+    /**
+     * @param domain the domain to encode. Every issue must have a finite value
+     *               set with at most {@link Integer#MAX_VALUE} values.
+     * @throws IllegalArgumentException if a value set is too large to encode
+     */
+    BidEncoder(Domain domain) {
+        this.domain = domain;
+        this.issues = domain.getIssues().toArray(new String[0]);
+        Arrays.sort(issues);
+        this.values = new Value[issues.length][];
+
+        for (int i = 0; i < issues.length; i++) {
+            ValueSet valueSet = domain.getValues(issues[i]);
+            if (valueSet.size().compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0)
+                throw new IllegalArgumentException("Issue " + issues[i] + " has too many values to encode");
+
+            int count = valueSet.size().intValue();
+            values[i] = new Value[count];
+            Map<Value, Integer> index = new HashMap<>();
+            for (int v = 0; v < count; v++) {
+                values[i][v] = valueSet.get(BigInteger.valueOf(v));
+                index.put(values[i][v], v);
+            }
+            valueIndices.add(index);
+        }
+    }
+
+    Domain getDomain() {
+        return domain;
+    }
+
+    int getIssueCount() {
+        return issues.length;
+    }
+
+    String getIssue(int issue) {
+        return issues[issue];
+    }
+
+    int getValueCount(int issue) {
+        return values[issue].length;
+    }
+
+    Value getValue(int issue, int value) {
+        return values[issue][value];
+    }
+
+    /**
+     * @param issue the issue number
+     * @param value a value of the issue, may be null
+     * @return the index of the value, or -1 if it is not in the issue's value set
+     */
+    int indexOf(int issue, Value value) {
+        Integer index = (value == null) ? null : valueIndices.get(issue).get(value);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * @return the number of bids in the domain, which is the product of the
+     *         value counts of all issues.
+     */
+    BigInteger getSpaceSize() {
+        BigInteger size = BigInteger.ONE;
+        for (Value[] issueValues : values)
+            size = size.multiply(BigInteger.valueOf(issueValues.length));
+        return size;
+    }
+
+    /**
+     * Writes the value indices of the bid into the given array.
+     * @param bid   the bid to encode
+     * @param codes array of at least {@link #getIssueCount()} elements
+     * @return false if the bid is partial or contains a value outside the
+     *         domain, in which case the content of codes is undefined.
+     */
+    boolean encode(Bid bid, int[] codes) {
+        for (int i = 0; i < issues.length; i++) {
+            codes[i] = indexOf(i, bid.getValue(issues[i]));
+            if (codes[i] == -1)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param bid the bid to encode
+     * @return the value indices of the bid, or null if it can not be encoded
+     */
+    int[] encode(Bid bid) {
+        int[] codes = new int[issues.length];
+        return encode(bid, codes) ? codes : null;
+    }
+
+    /**
+     * @param codes  array holding value indices
+     * @param offset position of the first issue's value index in codes
+     * @return the bid with the given value indices
+     */
+    Bid decode(int[] codes, int offset) {
+        Map<String, Value> issueValues = new HashMap<>();
+        for (int i = 0; i < issues.length; i++)
+            issueValues.put(issues[i], values[i][codes[offset + i]]);
+        return new Bid(issueValues);
+    }
+}
@@ -0,0 +1,46 @@
+package collabai.group21;
+
+import java.math.BigDecimal;
+
+/**
+ * The utility goals for our next bid, and the window of the bid space index
+ * around our goal. They are worked out once per turn and shared by the
+ * acceptance check that runs before the bid is searched for and by the
+ * search itself.
+ */
+final class BidGoals {
+
+    private final BigDecimal ourGoal;
+    private final BigDecimal theirGoal;
+    private final int[] window;
+
+    /**
+     * @param ourGoal   our utility goal for the bid
+     * @param theirGoal the opponent's utility goal for the bid
+     * @param window    the first position in the index and the position after
+     *                  the last one that the bid is picked from, or null if
+     *                  the domain is not indexed
+     */
+    BidGoals(BigDecimal ourGoal, BigDecimal theirGoal, int[] window) {
+        this.ourGoal = ourGoal;
+        this.theirGoal = theirGoal;
+        this.window = window;
+    }
+
+    BigDecimal getOurGoal() {
+        return ourGoal;
+    }
+
+    BigDecimal getTheirGoal() {
+        return theirGoal;
+    }
+
+    /**
+     * @return the first position in the index and the position after the last
+     *         one that the bid is picked from, or null if the domain is not
+     *         indexed
+     */
+    int[] getWindow() {
+        return window;
+    }
+}
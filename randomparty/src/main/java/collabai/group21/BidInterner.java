@@ -0,0 +1,244 @@
+package collabai.group21;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import geniusweb.issuevalue.Bid;
+
+/**
+ * Gives every distinct bid of a domain a small int id and one canonical
+ * {@link Bid} instance. Bids are looked up by their value indices (see
+ * {@link BidEncoder}) in an open addressing table with the hash of every id
+ * stored, so interning does not compute {@link Bid#hashCode()} and never
+ * compares issue maps. Everything that holds bids by id shares one instance
+ * per outcome, and can read the value indices of an id without encoding the
+ * bid again.
+ * <p>
+ * Bids that can not be encoded, like partial reservation bids, get ids too.
+ * They are looked up by equality and their value indices are -1 for the
+ * issues without a value in the domain.
+ * <p>
+ * Every {@link #intern(Bid)} and {@link #retain(int)} takes a reference to
+ * the id, and every {@link #release(int)} gives one back. An id without
+ * references is removed and reused for the next new bid, so the interner holds
+ * only the bids that are still referenced, like those kept in a bounded
+ * {@link NegotiationHistory}. Interning and releasing are synchronized, so
+ * tracks of different opponents can release from different threads; ids that
+ * are referenced can be read without locking, as long as no bid is interned
+ * at the same time.
+ */
+final class BidInterner {
+
+    private final BidEncoder encoder;
+    private final int issueCount;
+    private final int[] scratch;
+    private final Map<Bid, Integer> irregular = new HashMap<>();
+    private int[] codes;
+    private int[] hashes;
+    private Bid[] bids;
+    private int[] references;
+    private int[] free;
+    private int freeCount = 0;
+    private int[] table;
+    private int size = 0;
+    private int next = 0;
+
+    /**
+     * @param encoder the encoder of the domain
+     */
+    BidInterner(BidEncoder encoder) {
+        this.encoder = encoder;
+        this.issueCount = encoder.getIssueCount();
+        this.scratch = new int[issueCount];
+        this.codes = new int[16 * issueCount];
+        this.hashes = new int[16];
+        this.bids = new Bid[16];
+        this.references = new int[16];
+        this.free = new int[16];
+        this.table = new int[32];
+    }
+
+    /**
+     * Takes a reference to the id of the bid, which is given back with
+     * {@link #release(int)}.
+     * @param bid a bid of the domain, possibly partial
+     * @return the id of the bid, the same for all equal bids as long as it is
+     *         referenced
+     */
+    synchronized int intern(Bid bid) {
+        if (!encoder.encode(bid, scratch)) {
+            Integer id = irregular.get(bid);
+            if (id != null) {
+                references[id]++;
+                return id;
+            }
+            for (int i = 0; i < issueCount; i++)
+                scratch[i] = encoder.indexOf(i, bid.getValue(encoder.getIssue(i)));
+            id = add(bid, 0);
+            irregular.put(bid, id);
+            return id;
+        }
+
+        int hash = hash(scratch);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (hashes[id] == hash && matches(id)) {
+                references[id]++;
+                return id;
+            }
+        }
+        int id = add(bid, hash);
+        insert(id);
+        return id;
+    }
+
+    /**
+     * Takes another reference to an id that is referenced.
+     * @param id the id of a bid
+     */
+    synchronized void retain(int id) {
+        if (references[id] == 0)
+            throw new IllegalStateException("Bid " + id + " is not interned");
+        references[id]++;
+    }
+
+    /**
+     * Gives back a reference to the id. The id of a bid without references is
+     * removed, after which it can be given to another bid.
+     * @param id the id of a bid
+     */
+    synchronized void release(int id) {
+        if (references[id] == 0)
+            throw new IllegalStateException("Bid " + id + " is not interned");
+        if (--references[id] != 0)
+            return;
+        if (hashes[id] == 0)
+            irregular.remove(bids[id]);
+        else
+            remove(id);
+        bids[id] = null;
+        free[freeCount++] = id;
+        size--;
+    }
+
+    /**
+     * @return the canonical instance of the bid with the id
+     */
+    Bid getBid(int id) {
+        return bids[id];
+    }
+
+    /**
+     * @return the value index of the issue in the bid with the id, -1 if the
+     *         bid has no value of the domain for the issue
+     */
+    int getValueIndex(int id, int issue) {
+        return codes[id * issueCount + issue];
+    }
+
+    /**
+     * @param id    the id of a bid
+     * @param space a compiled profile of the domain
+     * @return the utility of the bid in the profile
+     */
+    double getUtility(int id, CompiledUtilitySpace space) {
+        if (hashes[id] == 0)
+            return space.getUtility(bids[id]);
+        return space.getUtility(codes, id * issueCount);
+    }
+
+    /**
+     * @return the number of distinct bids interned and still referenced
+     */
+    int size() {
+        return size;
+    }
+
+    private boolean matches(int id) {
+        int offset = id * issueCount;
+        for (int i = 0; i < issueCount; i++)
+            if (codes[offset + i] != scratch[i])
+                return false;
+        return true;
+    }
+
+    private int add(Bid bid, int hash) {
+        int id;
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        } else {
+            if (next == bids.length) {
+                codes = Arrays.copyOf(codes, 2 * codes.length);
+                hashes = Arrays.copyOf(hashes, 2 * hashes.length);
+                bids = Arrays.copyOf(bids, 2 * bids.length);
+                references = Arrays.copyOf(references, 2 * references.length);
+                free = new int[2 * free.length];
+            }
+            id = next++;
+        }
+        System.arraycopy(scratch, 0, codes, id * issueCount, issueCount);
+        hashes[id] = hash;
+        bids[id] = bid;
+        references[id] = 1;
+        size++;
+        return id;
+    }
+
+    /**
+     * Adds an encodable id to the table, growing it to keep it at most half
+     * full.
+     */
+    private void insert(int id) {
+        if (2 * (size - irregular.size()) > table.length) {
+            int[] old = table;
+            table = new int[2 * old.length];
+            for (int entry : old)
+                if (entry != 0)
+                    place(entry - 1);
+        }
+        place(id);
+    }
+
+    /**
+     * Removes an encodable id from the table, moving the entries after it back
+     * so that every entry stays reachable from its home slot.
+     */
+    private void remove(int id) {
+        int mask = table.length - 1;
+        int hole = hashes[id] & mask;
+        while (table[hole] != id + 1)
+            hole = (hole + 1) & mask;
+        for (int slot = (hole + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hashes[table[slot] - 1] & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void place(int id) {
+        int mask = table.length - 1;
+        int slot = hashes[id] & mask;
+        while (table[slot] != 0)
+            slot = (slot + 1) & mask;
+        table[slot] = id + 1;
+    }
+
+    /**
+     * Hash of value indices, never 0 so that it tells encodable ids apart
+     * from irregular ones.
+     */
+    private int hash(int[] values) {
+        int hash = 0;
+        for (int i = 0; i < issueCount; i++)
+            hash = 31 * hash + values[i];
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return (hash == 0) ? 1 : hash;
+    }
+}
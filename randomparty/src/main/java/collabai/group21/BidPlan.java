@@ -0,0 +1,59 @@
+package collabai.group21;
+
+import java.math.BigDecimal;
+
+import geniusweb.issuevalue.Bid;
+import geniusweb.profile.Profile;
+
+/**
+ * The outcome of planning our next bid: the bid and the utility goals it was
+ * searched with. Planning does not change the goals of the party; they are
+ * only taken over when the plan is used. That way a plan that is made
+ * speculatively, before our turn, can be thrown away without side effects.
+ */
+final class BidPlan {
+
+    private final Bid bid;
+    private final BigDecimal ourGoal;
+    private final BigDecimal theirGoal;
+    private final int round;
+    private final Profile profile;
+
+    /**
+     * @param bid       the planned bid
+     * @param ourGoal   our utility goal the bid was searched with
+     * @param theirGoal the opponent's utility goal the bid was searched with
+     * @param round     the round of the party the plan was made for
+     * @param profile   the profile the plan was made with
+     */
+    BidPlan(Bid bid, BigDecimal ourGoal, BigDecimal theirGoal, int round, Profile profile) {
+        this.bid = bid;
+        this.ourGoal = ourGoal;
+        this.theirGoal = theirGoal;
+        this.round = round;
+        this.profile = profile;
+    }
+
+    Bid getBid() {
+        return bid;
+    }
+
+    BigDecimal getOurGoal() {
+        return ourGoal;
+    }
+
+    BigDecimal getTheirGoal() {
+        return theirGoal;
+    }
+
+    /**
+     * @param round   the current round of the party
+     * @param profile the current profile of the party
+     * @return true if the plan was made in exactly this state. Every inform
+     *         advances the round, so no other information arrived since the
+     *         plan was made.
+     */
+    boolean isFor(int round, Profile profile) {
+        return this.round == round && this.profile == profile;
+    }
+}
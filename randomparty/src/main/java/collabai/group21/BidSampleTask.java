@@ -0,0 +1,106 @@
+package collabai.group21;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+import geniusweb.issuevalue.Bid;
+import tudelft.utilities.immutablelist.ImmutableList;
+
+/**
+ * Picks a uniformly random bid among the bids in a range of an
+ * {@link ImmutableList} that pass a filter, without collecting them. The
+ * range is read lazily by index and a single reservoir-sampled choice is kept.
+ * As a fork/join task the range is split, each half samples with its own
+ * {@link SplittableRandom#split()}, and the halves are merged by picking one
+ * with a probability proportional to its number of matches.
+ */
+final class BidSampleTask extends RecursiveTask<BidSampleTask.Sample> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of bids a task samples without splitting.
+     */
+    static final long LEAF_SIZE = 4096;
+
+    /**
+     * Number of bids that is sampled between checks of the time budget.
+     */
+    static final long CHUNK_SIZE = 256;
+
+    private final ImmutableList<Bid> bids;
+    private final long from;
+    private final long to;
+    private final Predicate<Bid> filter;
+    private final SplittableRandom random;
+    private final SearchBudget budget;
+
+    /**
+     * @param bids   the bids to sample from
+     * @param from   index of the first bid to consider
+     * @param to     index after the last bid to consider
+     * @param filter the test for the bids to consider. Called from several
+     *               threads at once.
+     * @param random the source of randomness, only used by this task
+     * @param budget the time budget, checked every {@link #CHUNK_SIZE} bids
+     */
+    BidSampleTask(ImmutableList<Bid> bids, long from, long to, Predicate<Bid> filter, SplittableRandom random,
+                  SearchBudget budget) {
+        this.bids = bids;
+        this.from = from;
+        this.to = to;
+        this.filter = filter;
+        this.random = random;
+        this.budget = budget;
+    }
+
+    /**
+     * Sequential version of the task.
+     * @return the sample of the bids in the range that pass the filter, or of
+     *         the part of the range searched before the budget was exhausted
+     */
+    static Sample sample(ImmutableList<Bid> bids, long from, long to, Predicate<Bid> filter, SplittableRandom random,
+                         SearchBudget budget) {
+        long count = 0;
+        Bid choice = null;
+        for (long n = from; n < to; n++) {
+            if ((n - from) % CHUNK_SIZE == 0 && budget.isExhausted())
+                break;
+            Bid bid = bids.get(BigInteger.valueOf(n));
+            if (filter.test(bid) && random.nextLong(++count) == 0)
+                choice = bid;
+        }
+        return new Sample(count, choice);
+    }
+
+    @Override
+    protected Sample compute() {
+        if (to - from <= LEAF_SIZE)
+            return sample(bids, from, to, filter, random, budget);
+
+        long middle = (from + to) >>> 1;
+        BidSampleTask right = new BidSampleTask(bids, middle, to, filter, random.split(), budget);
+        right.fork();
+        Sample left = new BidSampleTask(bids, from, middle, filter, random, budget).compute();
+        Sample rightSample = right.join();
+        long count = left.count + rightSample.count;
+        if (count == 0)
+            return left;
+        return new Sample(count, random.nextLong(count) < left.count ? left.bid : rightSample.bid);
+    }
+
+    /**
+     * A uniformly chosen bid and the number of bids it was chosen from.
+     */
+    static final class Sample {
+        final long count;
+        final Bid bid;
+
+        Sample(long count, Bid bid) {
+            this.count = count;
+            this.bid = bid;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package collabai.group21;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+/**
+ * Process-wide cache of {@link BidSpaceIndex}es, so that parties in the same
+ * JVM with the same profile share one index. Indexes are immutable, so they
+ * can be used by any number of parties at the same time. Profiles are matched
+ * on their {@link CompiledUtilitySpace#getFingerprint() fingerprint}, and
+ * indexes on the heap and off the heap are kept apart, so a party always gets
+ * the storage it asked for.
+ * <p>
+ * An index that is requested while another party builds it is waited for
+ * instead of built twice. The cache is bounded by the total number of bids in
+ * its indexes; when that is exceeded the least recently used indexes are
+ * dropped. Parties that still use a dropped index keep it as long as they
+ * need it.
+ */
+final class BidSpaceCache {
+
+    static final long DEFAULT_MAX_BIDS = 10_000_000;
+
+    /**
+     * The cache shared by all parties. Its bound is the system property
+     * collabai.group21.sharedIndexBids, or {@link #DEFAULT_MAX_BIDS}.
+     */
+    static final BidSpaceCache SHARED = new BidSpaceCache(
+            Long.getLong("collabai.group21.sharedIndexBids", DEFAULT_MAX_BIDS));
+
+    private final long maxBids;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bids = 0;
+
+    /**
+     * @param maxBids the largest total number of bids to keep
+     */
+    BidSpaceCache(long maxBids) {
+        this.maxBids = maxBids;
+    }
+
+    /**
+     * @param space   the compiled profile
+     * @param offHeap true for an index off the heap, see
+     *                {@link BidSpaceIndex#isOffHeap()}
+     * @param builder creates the index of a profile that is not in the cache,
+     *                with the requested storage. May return null if the
+     *                profile can not be indexed.
+     * @return the index of the profile, or null if the builder returned null
+     */
+    BidSpaceIndex get(CompiledUtilitySpace space, boolean offHeap,
+                      Function<CompiledUtilitySpace, BidSpaceIndex> builder) {
+        String key = offHeap ? space.getFingerprint() + "/offheap" : space.getFingerprint();
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(new FutureTask<>(() -> builder.apply(space)));
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (owner)
+            entry.task.run();
+        BidSpaceIndex index;
+        try {
+            index = entry.task.get();
+        } catch (ExecutionException e) {
+            if (owner)
+                remove(key, entry);
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Failed to build bid space", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return builder.apply(space);
+        }
+
+        if (owner) {
+            if (index == null)
+                remove(key, entry);
+            else
+                added(entry, index.size());
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of bids in the cached indexes
+     */
+    synchronized long getBids() {
+        return bids;
+    }
+
+    /**
+     * @return the number of cached indexes, including those being built
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    /**
+     * Accounts for a new index and drops the least recently used indexes that
+     * are accounted for until the cache is within its bound again.
+     */
+    private synchronized void added(Entry entry, int size) {
+        entry.size = size;
+        bids += size;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bids > maxBids && eldest.hasNext()) {
+            Entry old = eldest.next();
+            if (old.size < 0)
+                continue;
+            bids -= old.size;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * An index in the cache, with its number of bids once it is built.
+     */
+    private static final class Entry {
+        final FutureTask<BidSpaceIndex> task;
+        int size = -1;
+
+        Entry(FutureTask<BidSpaceIndex> task) {
+            this.task = task;
+        }
+    }
+}
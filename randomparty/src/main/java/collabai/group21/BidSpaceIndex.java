@@ -0,0 +1,421 @@
+package collabai.group21;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import geniusweb.issuevalue.Bid;
+import geniusweb.profile.utilityspace.LinearAdditive;
+
+/**
+ * All bids of a {@link LinearAdditive} profile, sorted on our utility. Bids are
+ * kept as int value-index tuples (see {@link BidEncoder}) next to a sorted
+ * double array of their utilities, so that the bids within a utility window
+ * are found with two binary searches and are stored consecutively. A
+ * {@link Bid} object is only created when {@link #getBid(int)} is called.
+ * <p>
+ * An index is either kept in arrays on the heap, or off the heap in direct or
+ * memory-mapped {@link ByteBuffer}s with the value indices packed in one byte
+ * per issue where they fit. Off the heap, the domain size is not bounded by
+ * the heap and indexes do not add to the work of the garbage collector, at
+ * the cost of somewhat slower access. Both hold the same bids in the same
+ * order with the same double utilities.
+ */
+final class BidSpaceIndex {
+
+    /**
+     * Largest domain that is enumerated. Bigger profiles are left to
+     * {@link geniusweb.exampleparties.timedependentparty.ExtendedUtilSpace}.
+     */
+    static final int MAX_SIZE = 5_000_000;
+
+    /**
+     * Largest domain that is enumerated off the heap.
+     */
+    static final int MAX_OFF_HEAP_SIZE = 200_000_000;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final BidEncoder encoder;
+    private final int issueCount;
+    private final int size;
+    private final int[] codes;
+    private final double[] utilities;
+    private final ByteBuffer codeBuffer;
+    private final ByteBuffer utilityBuffer;
+    private final int codeBytes;
+    private final double tolerance;
+
+    /**
+     * @param encoder   the encoder of the domain
+     * @param codes     the value indices of the bids, issue count per bid
+     * @param utilities the utilities of the bids, sorted ascending
+     * @param tolerance the utility tolerance
+     */
+    BidSpaceIndex(BidEncoder encoder, int[] codes, double[] utilities, double tolerance) {
+        this.encoder = encoder;
+        this.issueCount = encoder.getIssueCount();
+        this.size = utilities.length;
+        this.codes = codes;
+        this.utilities = utilities;
+        this.codeBuffer = null;
+        this.utilityBuffer = null;
+        this.codeBytes = 4;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Index that is kept off the heap.
+     * @param encoder   the encoder of the domain
+     * @param codes     the value indices of the bids, issue count per bid, in
+     *                  codeBytes bytes each from position 0
+     * @param codeBytes the number of bytes per value index, 1 or 4
+     * @param utilities the utilities of the bids as doubles from position 0,
+     *                  sorted ascending
+     * @param tolerance the utility tolerance
+     */
+    BidSpaceIndex(BidEncoder encoder, ByteBuffer codes, int codeBytes, ByteBuffer utilities, double tolerance) {
+        this.encoder = encoder;
+        this.issueCount = encoder.getIssueCount();
+        this.size = utilities.limit() / 8;
+        this.codes = null;
+        this.utilities = null;
+        this.codeBuffer = codes;
+        this.utilityBuffer = utilities;
+        this.codeBytes = codeBytes;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Enumerates and sorts all bids of the profile.
+     * @param space the compiled profile
+     * @return the index of all bids in the domain of the profile
+     * @throws IllegalArgumentException if the domain has more than
+     *                                  {@link #MAX_SIZE} bids
+     */
+    static BidSpaceIndex create(CompiledUtilitySpace space) {
+        BidEncoder encoder = space.getEncoder();
+        int size = checkSize(encoder, MAX_SIZE, 1);
+        int issueCount = encoder.getIssueCount();
+        double[][] weighted = getWeightedUtilities(space);
+
+        // enumerate in mixed radix order, the last issue changing fastest
+        double[] utilities = new double[size];
+        int[] ordinals = new int[size];
+        int[] digits = new int[issueCount];
+        for (int n = 0; n < size; n++) {
+            double utility = 0;
+            for (int i = 0; i < issueCount; i++)
+                utility += weighted[i][digits[i]];
+            utilities[n] = utility;
+            ordinals[n] = n;
+            for (int i = issueCount - 1; i >= 0 && ++digits[i] == weighted[i].length; i--)
+                digits[i] = 0;
+        }
+
+        sort(utilities, ordinals, 0, size);
+
+        int[] codes = new int[size * issueCount];
+        for (int n = 0; n < size; n++) {
+            int ordinal = ordinals[n];
+            for (int i = issueCount - 1; i >= 0; i--) {
+                codes[n * issueCount + i] = ordinal % weighted[i].length;
+                ordinal /= weighted[i].length;
+            }
+        }
+
+        return new BidSpaceIndex(encoder, codes, utilities, computeTolerance(weighted));
+    }
+
+    /**
+     * Same as {@link #create(CompiledUtilitySpace)}, but enumerates and sorts
+     * the bids in direct buffers, so that the heap use does not depend on the
+     * size of the domain.
+     * @param space the compiled profile
+     * @return the index of all bids in the domain of the profile, off the heap
+     * @throws IllegalArgumentException if the domain has more than
+     *                                  {@link #MAX_OFF_HEAP_SIZE} bids
+     */
+    static BidSpaceIndex createOffHeap(CompiledUtilitySpace space) {
+        BidEncoder encoder = space.getEncoder();
+        int codeBytes = getCodeBytes(encoder);
+        int size = checkSize(encoder, MAX_OFF_HEAP_SIZE, codeBytes);
+        int issueCount = encoder.getIssueCount();
+        double[][] weighted = getWeightedUtilities(space);
+
+        ByteBuffer utilities = ByteBuffer.allocateDirect(8 * size).order(ByteOrder.nativeOrder());
+        ByteBuffer ordinals = ByteBuffer.allocateDirect(4 * size).order(ByteOrder.nativeOrder());
+        int[] digits = new int[issueCount];
+        for (int n = 0; n < size; n++) {
+            double utility = 0;
+            for (int i = 0; i < issueCount; i++)
+                utility += weighted[i][digits[i]];
+            utilities.putDouble(8 * n, utility);
+            ordinals.putInt(4 * n, n);
+            for (int i = issueCount - 1; i >= 0 && ++digits[i] == weighted[i].length; i--)
+                digits[i] = 0;
+        }
+
+        sort(utilities, ordinals, 0, size);
+
+        ByteBuffer codes = ByteBuffer.allocateDirect(codeBytes * size * issueCount).order(ByteOrder.nativeOrder());
+        for (int n = 0; n < size; n++) {
+            int ordinal = ordinals.getInt(4 * n);
+            for (int i = issueCount - 1; i >= 0; i--) {
+                int code = n * issueCount + i;
+                if (codeBytes == 1)
+                    codes.put(code, (byte) (ordinal % weighted[i].length));
+                else
+                    codes.putInt(4 * code, ordinal % weighted[i].length);
+                ordinal /= weighted[i].length;
+            }
+        }
+
+        return new BidSpaceIndex(encoder, codes, codeBytes, utilities, computeTolerance(weighted));
+    }
+
+    /**
+     * @param encoder   the encoder of the domain
+     * @param maxSize   the largest number of bids to index
+     * @param codeBytes the number of bytes per value index
+     * @return the number of bids in the domain
+     * @throws IllegalArgumentException if the domain can not be indexed
+     */
+    private static int checkSize(BidEncoder encoder, int maxSize, int codeBytes) {
+        BigInteger spaceSize = encoder.getSpaceSize();
+        if (spaceSize.compareTo(BigInteger.valueOf(maxSize)) > 0)
+            throw new IllegalArgumentException("Domain has " + spaceSize + " bids, more than " + maxSize);
+        if (spaceSize.signum() == 0)
+            throw new IllegalArgumentException("Domain has no bids");
+        BigInteger codeSize = spaceSize.multiply(BigInteger.valueOf((long) encoder.getIssueCount() * codeBytes));
+        if (codeSize.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0)
+            throw new IllegalArgumentException("Domain has too many issues to index " + spaceSize + " bids");
+        return spaceSize.intValue();
+    }
+
+    private static double[][] getWeightedUtilities(CompiledUtilitySpace space) {
+        BidEncoder encoder = space.getEncoder();
+        double[][] weighted = new double[encoder.getIssueCount()][];
+        for (int i = 0; i < weighted.length; i++) {
+            weighted[i] = new double[encoder.getValueCount(i)];
+            for (int v = 0; v < weighted[i].length; v++)
+                weighted[i][v] = space.getWeightedUtility(i, v);
+        }
+        return weighted;
+    }
+
+    /**
+     * @param encoder the encoder of the domain
+     * @return the number of bytes a value index takes off the heap: 1 if
+     *         every issue has at most 256 values, 4 otherwise
+     */
+    static int getCodeBytes(BidEncoder encoder) {
+        for (int i = 0; i < encoder.getIssueCount(); i++)
+            if (encoder.getValueCount(i) > 256)
+                return 4;
+        return 1;
+    }
+
+    /**
+     * Same tolerance as ExtendedUtilSpace: the smallest difference between the
+     * two best weighted values of an issue.
+     */
+    static double computeTolerance(double[][] weighted) {
+        double tolerance = 1;
+        for (double[] issueUtils : weighted) {
+            if (issueUtils.length < 2)
+                continue;
+            double[] sorted = issueUtils.clone();
+            Arrays.sort(sorted);
+            tolerance = Math.min(tolerance, sorted[sorted.length - 1] - sorted[sorted.length - 2]);
+        }
+        return tolerance;
+    }
+
+    /**
+     * Quicksort on keys that applies the same swaps to ords.
+     */
+    private static void sort(double[] keys, int[] ords, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            double pivot = median(keys[from], keys[mid], keys[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (keys[i] < pivot)
+                    i++;
+                while (keys[j] > pivot)
+                    j--;
+                if (i <= j)
+                    swap(keys, ords, i++, j--);
+            }
+            // recurse into the smaller part to bound the stack depth
+            if (j - from < to - i) {
+                sort(keys, ords, from, j + 1);
+                from = i;
+            } else {
+                sort(keys, ords, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++)
+            for (int j = i; j > from && keys[j - 1] > keys[j]; j--)
+                swap(keys, ords, j - 1, j);
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(double[] keys, int[] ords, int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int ord = ords[i];
+        ords[i] = ords[j];
+        ords[j] = ord;
+    }
+
+    /**
+     * Same quicksort on doubles and ints in buffers, with the same swaps, so
+     * that equal keys end up in the same order as on the heap.
+     */
+    private static void sort(ByteBuffer keys, ByteBuffer ords, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            double pivot = median(keys.getDouble(8 * from), keys.getDouble(8 * mid), keys.getDouble(8 * (to - 1)));
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (keys.getDouble(8 * i) < pivot)
+                    i++;
+                while (keys.getDouble(8 * j) > pivot)
+                    j--;
+                if (i <= j)
+                    swap(keys, ords, i++, j--);
+            }
+            if (j - from < to - i) {
+                sort(keys, ords, from, j + 1);
+                from = i;
+            } else {
+                sort(keys, ords, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++)
+            for (int j = i; j > from && keys.getDouble(8 * (j - 1)) > keys.getDouble(8 * j); j--)
+                swap(keys, ords, j - 1, j);
+    }
+
+    private static void swap(ByteBuffer keys, ByteBuffer ords, int i, int j) {
+        double key = keys.getDouble(8 * i);
+        keys.putDouble(8 * i, keys.getDouble(8 * j));
+        keys.putDouble(8 * j, key);
+        int ord = ords.getInt(4 * i);
+        ords.putInt(4 * i, ords.getInt(4 * j));
+        ords.putInt(4 * j, ord);
+    }
+
+    BidEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * @return the number of bids in the index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the utility tolerance to use for windows around a goal utility
+     */
+    double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return true if the index is kept off the heap
+     */
+    boolean isOffHeap() {
+        return utilities == null;
+    }
+
+    double getMin() {
+        return getUtility(0);
+    }
+
+    double getMax() {
+        return getUtility(size - 1);
+    }
+
+    /**
+     * @param position position in the index, 0 holds the worst bid
+     * @return our utility of the bid at the position
+     */
+    double getUtility(int position) {
+        if (utilities != null)
+            return utilities[position];
+        return utilityBuffer.getDouble(8 * position);
+    }
+
+    /**
+     * @return the value index of the issue in the bid at the position
+     */
+    int getValueIndex(int position, int issue) {
+        int code = position * issueCount + issue;
+        if (codes != null)
+            return codes[code];
+        if (codeBytes == 1)
+            return codeBuffer.get(code) & 0xff;
+        return codeBuffer.getInt(4 * code);
+    }
+
+    /**
+     * @param position position in the index
+     * @return a new {@link Bid} for the bid at the position
+     */
+    Bid getBid(int position) {
+        if (codes != null)
+            return encoder.decode(codes, position * issueCount);
+        int[] values = new int[issueCount];
+        for (int i = 0; i < issueCount; i++)
+            values[i] = getValueIndex(position, i);
+        return encoder.decode(values, 0);
+    }
+
+    /**
+     * @param utility the lower end of a window
+     * @return the first position with a utility &ge; the given utility
+     */
+    int lowerBound(double utility) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getUtility(mid) < utility)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * @param utility the upper end of a window
+     * @return the first position with a utility &gt; the given utility
+     */
+    int upperBound(double utility) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getUtility(mid) <= utility)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,159 @@
+package collabai.group21;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores {@link BidSpaceIndex}es in a directory, so that sessions with the same
+ * profile do not enumerate and sort the bid space again. The file of an index
+ * is named after the {@link CompiledUtilitySpace#getFingerprint() fingerprint}
+ * of its profile, which covers everything the index depends on, so a changed
+ * profile never finds a stale file.
+ * <p>
+ * The file holds a header, the sorted utilities as doubles, so that loaded
+ * utilities are bit for bit the same as computed ones, and the value indices
+ * in one byte per issue if every issue has at most 256 values, or in four
+ * bytes otherwise. Files are memory-mapped for reading, and an index that is
+ * loaded off the heap reads the mapped file directly. They are written to a
+ * temporary file first and then moved in place, so that parties that share the
+ * directory never see half-written files.
+ */
+final class BidSpaceIndexFile {
+
+    private static final int MAGIC = 0x47323149; // "G21I"
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".idx";
+    private static final int HEADER_BYTES = 25;
+
+    private BidSpaceIndexFile() {
+    }
+
+    /**
+     * @param space the compiled profile
+     * @return the name of the file of the index of the profile
+     */
+    static String getFileName(CompiledUtilitySpace space) {
+        return space.getFingerprint() + SUFFIX;
+    }
+
+    /**
+     * @param directory the directory with the stored indexes
+     * @param space     the compiled profile
+     * @return the stored index of the profile, or null if there is none
+     * @throws IOException if the file exists but can not be read or is not a
+     *                     valid index of the profile
+     */
+    static BidSpaceIndex load(Path directory, CompiledUtilitySpace space) throws IOException {
+        return load(directory, space, false);
+    }
+
+    /**
+     * @param directory the directory with the stored indexes
+     * @param space     the compiled profile
+     * @param offHeap   if true, the index is read from the mapped file instead
+     *                  of being copied to the heap
+     * @return the stored index of the profile, or null if there is none
+     * @throws IOException if the file exists but can not be read, is not a
+     *                     valid index of the profile, or holds more bids than
+     *                     are indexed on the heap or off it. Nothing is
+     *                     allocated for the bids before the file is checked.
+     */
+    static BidSpaceIndex load(Path directory, CompiledUtilitySpace space, boolean offHeap) throws IOException {
+        Path file = directory.resolve(getFileName(space));
+        if (!Files.isRegularFile(file))
+            return null;
+
+        BidEncoder encoder = space.getEncoder();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(length, HEADER_BYTES));
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION)
+                throw new IOException(file + " is not a bid space index");
+            int size = header.getInt();
+            int issueCount = header.getInt();
+            double tolerance = header.getDouble();
+            int codeBytes = header.get();
+            if (issueCount != encoder.getIssueCount() || !BigInteger.valueOf(size).equals(encoder.getSpaceSize())
+                    || codeBytes != BidSpaceIndex.getCodeBytes(encoder))
+                throw new IOException(file + " does not match the profile");
+            int maxSize = offHeap ? BidSpaceIndex.MAX_OFF_HEAP_SIZE : BidSpaceIndex.MAX_SIZE;
+            if (size > maxSize)
+                throw new IOException(file + " has " + size + " bids, more than " + maxSize);
+            long utilityLength = 8L * size;
+            long codeLength = (long) codeBytes * size * issueCount;
+            if (codeLength > Integer.MAX_VALUE)
+                throw new IOException(file + " has too many issues to load " + size + " bids");
+            if (length != HEADER_BYTES + utilityLength + codeLength)
+                throw new IOException(file + " is truncated");
+
+            // the whole file can be over 2 GB, so the utilities and codes are mapped apart
+            ByteBuffer utilities = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, utilityLength);
+            ByteBuffer codes = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + utilityLength, codeLength);
+            if (offHeap)
+                return new BidSpaceIndex(encoder, codes, codeBytes, utilities, tolerance);
+
+            double[] utilityArray = new double[size];
+            utilities.asDoubleBuffer().get(utilityArray);
+            int[] codeArray = new int[size * issueCount];
+            if (codeBytes == 1) {
+                for (int n = 0; n < codeArray.length; n++)
+                    codeArray[n] = codes.get(n) & 0xff;
+            } else {
+                codes.asIntBuffer().get(codeArray);
+            }
+            return new BidSpaceIndex(encoder, codeArray, utilityArray, tolerance);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+    }
+
+    /**
+     * Stores the index, replacing an earlier file of the same profile.
+     * @param directory the directory with the stored indexes, created if it
+     *                  does not exist
+     * @param space     the compiled profile
+     * @param index     the index of the profile
+     * @throws IOException if the file can not be written
+     */
+    static void store(Path directory, CompiledUtilitySpace space, BidSpaceIndex index) throws IOException {
+        Files.createDirectories(directory);
+        BidEncoder encoder = space.getEncoder();
+        int issueCount = encoder.getIssueCount();
+        int codeBytes = BidSpaceIndex.getCodeBytes(encoder);
+
+        Path temp = Files.createTempFile(directory, "index", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(index.size());
+                out.writeInt(issueCount);
+                out.writeDouble(index.getTolerance());
+                out.writeByte(codeBytes);
+                for (int position = 0; position < index.size(); position++)
+                    out.writeDouble(index.getUtility(position));
+                for (int position = 0; position < index.size(); position++) {
+                    for (int i = 0; i < issueCount; i++) {
+                        if (codeBytes == 1)
+                            out.writeByte(index.getValueIndex(position, i));
+                        else
+                            out.writeInt(index.getValueIndex(position, i));
+                    }
+                }
+            }
+            Files.move(temp, directory.resolve(getFileName(space)), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package collabai.group21;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Finds bids in a window of our utility and, optionally, a window of the
+ * modelled opponent utility, without enumerating the domain. Bids are built
+ * issue by issue, and a partial bid is abandoned as soon as the best and
+ * worst values of the remaining issues can not bring it into both windows.
+ * Our bounds are the sums of the highest and lowest weighted utilities of the
+ * remaining issues, the opponent bounds the sums of the highest and lowest
+ * rounded model fractions. The values of every issue are tried from a random starting
+ * value, so that repeated searches find different bids.
+ * <p>
+ * The search stops after a given number of hits, or when its time budget is
+ * exhausted, so its cost does not depend on the size of the domain. The hits
+ * are shared out over the values of every issue: each value may add its share
+ * of the hits still wanted, and what it leaves goes to the next values. If the
+ * last values leave hits, the values that used their whole share are searched
+ * again for more. The hits are therefore spread over the window instead of
+ * all coming from the first values tried, and fewer are found only if the
+ * window holds fewer bids.
+ */
+final class BranchAndBoundSearch {
+
+    /**
+     * Number of bids the party collects in one search, to pick its bid from.
+     */
+    static final int DEFAULT_HITS = 64;
+
+    /**
+     * Number of search nodes between checks of the time budget.
+     */
+    static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * Margin on the pruning bounds for rounding differences between the
+     * bounds and the sums of the bids. Bids are always checked exactly.
+     */
+    private static final double EPSILON = 1e-12;
+
+    private final CompiledUtilitySpace space;
+    private final int issueCount;
+    private final double[] maxRemaining;
+    private final double[] minRemaining;
+    private final double tolerance;
+    private final double max;
+
+    /**
+     * @param space the compiled profile to search the domain of
+     */
+    BranchAndBoundSearch(CompiledUtilitySpace space) {
+        this.space = space;
+        this.issueCount = space.getEncoder().getIssueCount();
+        this.maxRemaining = new double[issueCount + 1];
+        this.minRemaining = new double[issueCount + 1];
+        double[][] weighted = new double[issueCount][];
+        double[] best = new double[issueCount];
+        for (int i = issueCount - 1; i >= 0; i--) {
+            weighted[i] = space.getWeightedUtilities(i);
+            double max = Double.NEGATIVE_INFINITY;
+            double min = Double.POSITIVE_INFINITY;
+            for (double utility : weighted[i]) {
+                max = Math.max(max, utility);
+                min = Math.min(min, utility);
+            }
+            best[i] = max;
+            maxRemaining[i] = maxRemaining[i + 1] + max;
+            minRemaining[i] = minRemaining[i + 1] + min;
+        }
+        this.tolerance = BidSpaceIndex.computeTolerance(weighted);
+        // summed in the order of the issues, like the utilities of the bids
+        double max = 0;
+        for (int i = 0; i < issueCount; i++)
+            max += best[i];
+        this.max = max;
+    }
+
+    /**
+     * @return the utility tolerance to use for windows around a goal utility,
+     *         the same as that of {@link BidSpaceIndex}
+     */
+    double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return the highest utility of a bid in the domain
+     */
+    double getMax() {
+        return max;
+    }
+
+    /**
+     * @param ourMin   lower bound of our utility, inclusive
+     * @param ourMax   upper bound of our utility, inclusive
+     * @param model    the opponent model, or null to only search our window
+     * @param theirMin lower bound of the modelled opponent utility, exclusive
+     * @param theirMax upper bound of the modelled opponent utility, exclusive
+     * @param hits     the number of bids after which the search stops
+     * @param random   the source of randomness for the order of the values
+     * @param budget   the time budget, checked every {@link #CHECK_INTERVAL}
+     *                 nodes
+     * @return the value indices of the bids found, at most hits of them
+     */
+    List<int[]> search(double ourMin, double ourMax, IncrementalOpponentModel model, double theirMin,
+                       double theirMax, int hits, SplittableRandom random, SearchBudget budget) {
+        Search search = new Search(ourMin, ourMax, model, theirMin, theirMax, random, budget);
+        search.visit(0, 0, 0, hits);
+        return search.found;
+    }
+
+    /**
+     * The state of one search.
+     */
+    private final class Search {
+        private final double ourMin, ourMax;
+        private final IncrementalOpponentModel model;
+        private final double theirMin, theirMax;
+        private final long[] maxFractions;
+        private final long[] minFractions;
+        private final SplittableRandom random;
+        private final SearchBudget budget;
+        private final int[] values = new int[issueCount];
+        private final List<int[]> found = new ArrayList<>();
+        private final int[][] shares = new int[issueCount][];
+        private final int[][] counts = new int[issueCount][];
+        private final int[][] offsets = new int[issueCount][];
+        private long nodes = 0;
+        private boolean stopped = false;
+
+        Search(double ourMin, double ourMax, IncrementalOpponentModel model, double theirMin, double theirMax,
+               SplittableRandom random, SearchBudget budget) {
+            this.ourMin = ourMin;
+            this.ourMax = ourMax;
+            this.model = model;
+            this.theirMin = theirMin;
+            this.theirMax = theirMax;
+            this.random = random;
+            this.budget = budget;
+            this.maxFractions = new long[issueCount + 1];
+            this.minFractions = new long[issueCount + 1];
+            for (int i = 0; i < issueCount; i++) {
+                int valueCount = space.getWeightedUtilities(i).length;
+                shares[i] = new int[valueCount];
+                counts[i] = new int[valueCount];
+                offsets[i] = new int[valueCount];
+            }
+            if (model == null)
+                return;
+            for (int i = issueCount - 1; i >= 0; i--) {
+                int max = Integer.MIN_VALUE;
+                int min = Integer.MAX_VALUE;
+                for (int fraction : model.getFractions(i)) {
+                    max = Math.max(max, fraction);
+                    min = Math.min(min, fraction);
+                }
+                maxFractions[i] = maxFractions[i + 1] + max;
+                minFractions[i] = minFractions[i + 1] + min;
+            }
+        }
+
+        /**
+         * Adds the bids in the windows that start with the values chosen so
+         * far to the end of {@link #found}, as many as the quota or all of
+         * them if there are fewer, unless the search is stopped.
+         * @param issue     the next issue to choose a value for
+         * @param utility   our utility of the values chosen so far
+         * @param fractions the sum of the rounded model fractions of the
+         *                  values chosen so far
+         * @param quota     the number of bids wanted
+         * @return the number of bids added
+         */
+        int visit(int issue, double utility, long fractions, int quota) {
+            if (++nodes % CHECK_INTERVAL == 0 && budget.isExhausted())
+                stopped = true;
+            if (stopped)
+                return 0;
+
+            if (issue == issueCount) {
+                if (utility >= ourMin && utility <= ourMax && isForThem(fractions)) {
+                    found.add(values.clone());
+                    return 1;
+                }
+                return 0;
+            }
+            if (utility + maxRemaining[issue] < ourMin - EPSILON
+                    || utility + minRemaining[issue] > ourMax + EPSILON)
+                return 0;
+            if (model != null && (model.toUtility(fractions + maxFractions[issue]) <= theirMin - EPSILON
+                    || model.toUtility(fractions + minFractions[issue]) >= theirMax + EPSILON))
+                return 0;
+
+            double[] weighted = space.getWeightedUtilities(issue);
+            int[] modelFractions = (model == null) ? null : model.getFractions(issue);
+            int[] shares = this.shares[issue];
+            int[] counts = this.counts[issue];
+            int[] offsets = this.offsets[issue];
+            int start = random.nextInt(weighted.length);
+            int remaining = quota;
+            int tried = 0;
+            for (; tried < weighted.length && remaining > 0 && !stopped; tried++) {
+                int value = (start + tried) % weighted.length;
+                int left = weighted.length - tried;
+                shares[tried] = remaining / left + ((remaining % left == 0) ? 0 : 1);
+                offsets[tried] = found.size();
+                values[issue] = value;
+                counts[tried] = visit(issue + 1, utility + weighted[value],
+                        fractions + ((model == null) ? 0 : modelFractions[value]), shares[tried]);
+                remaining -= counts[tried];
+            }
+
+            // values that used their whole share may have more bids for the hits the others left
+            for (int n = 0; n < tried && remaining > 0 && !stopped; n++) {
+                if (counts[n] < shares[n])
+                    continue;
+                int value = (start + n) % weighted.length;
+                int offset = found.size();
+                values[issue] = value;
+                int count = visit(issue + 1, utility + weighted[value],
+                        fractions + ((model == null) ? 0 : modelFractions[value]), counts[n] + remaining);
+                if (count < counts[n]) {
+                    // stopped before finding the bids again
+                    found.subList(offset, found.size()).clear();
+                    continue;
+                }
+                found.subList(offsets[n], offsets[n] + counts[n]).clear();
+                for (int m = 0; m < tried; m++)
+                    if (offsets[m] > offsets[n])
+                        offsets[m] -= counts[n];
+                remaining -= count - counts[n];
+                offsets[n] = offset - counts[n];
+                counts[n] = count;
+            }
+            return quota - remaining;
+        }
+
+        private boolean isForThem(long fractions) {
+            if (model == null)
+                return true;
+            double utility = model.toUtility(fractions);
+            return utility > theirMin && utility < theirMax;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package collabai.group21;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import geniusweb.issuevalue.Bid;
+import geniusweb.issuevalue.Value;
+import geniusweb.profile.utilityspace.LinearAdditive;
+import geniusweb.profile.utilityspace.ValueSetUtilities;
+
+/**
+ * A {@link LinearAdditive} profile compiled into flat double tables, indexed
+ * by the issue and value numbers of a {@link BidEncoder}. Evaluating a bid is
+ * a sum over the issues without BigDecimal arithmetic or allocation.
+ */
+final class CompiledUtilitySpace {
+
+    /**
+     * Largest allowed difference with the BigDecimal utility in check mode.
+     */
+    static final double CHECK_EPSILON = 1e-9;
+
+    private final LinearAdditive profile;
+    private final BidEncoder encoder;
+    private final double[] weights;
+    private final double[][] weightedUtilities;
+    private final boolean check;
+    private String fingerprint;
+
+    /**
+     * @param profile the profile to compile
+     * @param check   if true, every evaluation of a {@link Bid} is compared with
+     *                {@link LinearAdditive#getUtility(Bid)}
+     */
+    CompiledUtilitySpace(LinearAdditive profile, boolean check) {
+        this.profile = profile;
+        this.encoder = new BidEncoder(profile.getDomain());
+        this.check = check;
+
+        int issueCount = encoder.getIssueCount();
+        this.weights = new double[issueCount];
+        this.weightedUtilities = new double[issueCount][];
+        for (int i = 0; i < issueCount; i++) {
+            String issue = encoder.getIssue(i);
+            BigDecimal weight = profile.getWeight(issue);
+            ValueSetUtilities utils = profile.getUtilities().get(issue);
+            weights[i] = weight.doubleValue();
+            weightedUtilities[i] = new double[encoder.getValueCount(i)];
+            for (int v = 0; v < weightedUtilities[i].length; v++)
+                weightedUtilities[i][v] = weight.multiply(utils.getUtility(encoder.getValue(i, v))).doubleValue();
+        }
+    }
+
+    LinearAdditive getProfile() {
+        return profile;
+    }
+
+    BidEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * @return a SHA-256 hash, in hex, of the issues and values in encoder order
+     *         and their weighted utilities. Spaces with the same fingerprint
+     *         evaluate all bids the same, so they have the same bid space.
+     */
+    String getFingerprint() {
+        if (fingerprint != null)
+            return fingerprint;
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer number = ByteBuffer.allocate(8);
+        digest.update(number.putInt(0, weightedUtilities.length).array(), 0, 4);
+        for (int i = 0; i < weightedUtilities.length; i++) {
+            update(digest, number, encoder.getIssue(i));
+            digest.update(number.putInt(0, weightedUtilities[i].length).array(), 0, 4);
+            for (int v = 0; v < weightedUtilities[i].length; v++) {
+                update(digest, number, encoder.getValue(i, v).toString());
+                digest.update(number.putLong(0, Double.doubleToLongBits(weightedUtilities[i][v])).array());
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest())
+            hex.append(String.format("%02x", b));
+        return fingerprint = hex.toString();
+    }
+
+    /**
+     * Adds a string with its length, so that consecutive strings can not be
+     * confused.
+     */
+    private static void update(MessageDigest digest, ByteBuffer number, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        digest.update(number.putInt(0, bytes.length).array(), 0, 4);
+        digest.update(bytes);
+    }
+
+    double getWeight(int issue) {
+        return weights[issue];
+    }
+
+    /**
+     * @return weight times utility of the value of the issue
+     */
+    double getWeightedUtility(int issue, int value) {
+        return weightedUtilities[issue][value];
+    }
+
+    /**
+     * @return weight times utility of every value of the issue, by value
+     *         index. The array is shared and must not be modified.
+     */
+    double[] getWeightedUtilities(int issue) {
+        return weightedUtilities[issue];
+    }
+
+    /**
+     * @param codes  array holding value indices
+     * @param offset position of the first issue's value index in codes
+     * @return the utility of the encoded bid
+     */
+    double getUtility(int[] codes, int offset) {
+        double utility = 0;
+        for (int i = 0; i < weightedUtilities.length; i++)
+            utility += weightedUtilities[i][codes[offset + i]];
+        return utility;
+    }
+
+    /**
+     * @param bid a bid, possibly partial or with values outside the domain
+     *            like some reservation bids
+     * @return the utility of the bid
+     * @throws IllegalStateException in check mode, if the result differs more
+     *                               than {@link #CHECK_EPSILON} from the
+     *                               profile's own utility
+     */
+    double getUtility(Bid bid) {
+        double utility = 0;
+        for (int i = 0; i < weightedUtilities.length; i++) {
+            Value value = bid.getValue(encoder.getIssue(i));
+            int index = encoder.indexOf(i, value);
+            if (index != -1)
+                utility += weightedUtilities[i][index];
+            else if (value != null)
+                utility += weights[i] * profile.getUtilities().get(encoder.getIssue(i)).getUtility(value).doubleValue();
+        }
+
+        if (check) {
+            double expected = profile.getUtility(bid).doubleValue();
+            if (Math.abs(utility - expected) > CHECK_EPSILON)
+                throw new IllegalStateException("Compiled utility " + utility + " of " + bid + " differs from " + expected);
+        }
+        return utility;
+    }
+}
@@ -0,0 +1,6 @@
+package collabai.group21;
+
+enum Goal {
+    INCREASE,
+    DECREASE
+}
@@ -3,9 +3,18 @@ package collabai.group21;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 
 import geniusweb.actions.Accept;
 import geniusweb.actions.Action;
@@ -29,7 +38,6 @@ import geniusweb.progress.Progress;
 import geniusweb.progress.ProgressRounds;
 import tudelft.utilities.immutablelist.ImmutableList;
 import tudelft.utilities.logging.Reporter;
-import geniusweb.opponentmodel.FrequencyOpponentModel;
 
 /**
  * A simple party that places random bids and accepts when it receives an offer
@@ -47,29 +55,121 @@ import geniusweb.opponentmodel.FrequencyOpponentModel;
  * <td>This value is used as maxPower for placed {@link Vote}s. Default value is
  * infinity.</td>
  * </tr>
+ * <tr>
+ * <td>checkUtilities</td>
+ * <td>If true, every utility computed from the compiled profile is checked
+ * against the BigDecimal utility of the profile. Default value is false.</td>
+ * </tr>
+ * <tr>
+ * <td>parallel</td>
+ * <td>If true, large candidate sets are scored, and the offers of several
+ * parties are processed, on the common {@link ForkJoinPool}. Default value is
+ * true.</td>
+ * </tr>
+ * <tr>
+ * <td>parallelThreshold</td>
+ * <td>The smallest number of candidate bids that is scored in parallel.
+ * Default value is 50000.</td>
+ * </tr>
+ * <tr>
+ * <td>seed</td>
+ * <td>Seed for the random choice among the candidate bids, to make runs
+ * reproducible. By default a random seed is used.</td>
+ * </tr>
+ * <tr>
+ * <td>searchBudget</td>
+ * <td>The part of the time per remaining turn that the bid search of a turn may
+ * take. When it runs out, the best bid found so far is offered. A value of 0
+ * or less never cuts the search short. Default value is 0.5.</td>
+ * </tr>
+ * <tr>
+ * <td>speculative</td>
+ * <td>If true, our next bid is planned on a background thread as soon as an
+ * offer of the opponent arrives, and used on our turn if nothing changed in
+ * between. Default value is false.</td>
+ * </tr>
+ * <tr>
+ * <td>indexCache</td>
+ * <td>Directory where the sorted bid space of a profile is stored, and loaded
+ * from in later sessions with the same profile. By default the bid space is
+ * built in every session.</td>
+ * </tr>
+ * <tr>
+ * <td>sharedIndex</td>
+ * <td>If true, the sorted bid space is shared with the other parties in the
+ * same JVM that have the same profile, see {@link BidSpaceCache}. Default
+ * value is true.</td>
+ * </tr>
+ * <tr>
+ * <td>historySize</td>
+ * <td>The number of bids per party that is kept in the history. Statistics
+ * always cover the whole session, but after a profile change they are rebuilt
+ * from the kept bids only, and only the kept bids stay interned. By default
+ * all bids are kept.</td>
+ * </tr>
+ * <tr>
+ * <td>offHeapIndex</td>
+ * <td>If true, the sorted bid space is kept off the heap, see
+ * {@link BidSpaceIndex}, and domains of up to
+ * {@link BidSpaceIndex#MAX_OFF_HEAP_SIZE} bids are indexed. Bids are then
+ * searched without a grid, so the heap use does not grow with the domain.
+ * Default value is false.</td>
+ * </tr>
+ * <tr>
+ * <td>batchEvaluation</td>
+ * <td>If true, utilities that are computed for many bids at once, like the
+ * modelled opponent utilities of the bids in a column of the
+ * {@link JointUtilityGrid}, are evaluated in batches by a
+ * {@link BatchEvaluator}. On Java 17 and later the
+ * batches use the Vector API if the runtime was started with
+ * {@code --add-modules jdk.incubator.vector}, see {@link BatchKernel}.
+ * Default value is false.</td>
+ * </tr>
+ * <tr>
+ * <td>boundedSearch</td>
+ * <td>If true, bids in domains that are too large to index are built by a
+ * {@link BranchAndBoundSearch}, otherwise they are searched with the
+ * ExtendedUtilSpace of the time dependent party. Default value is true.</td>
+ * </tr>
+ * <tr>
+ * <td>acceptBeforeBid</td>
+ * <td>If true, the opponent's bid is accepted before our next bid is searched
+ * for when that bid can not change the decision. The decisions are the same
+ * either way. Default value is true.</td>
+ * </tr>
  * </table>
  */
 public class Group21Party extends DefaultParty {
 
 
     private Bid lastReceivedBid = null;
+    private BidInterner interner;
+    private BidSpaceIndex bidSpace;
+    private BranchAndBoundSearch boundedSearch;
     private ExtendedUtilSpace extendedUtilSpace;
     private LinearAdditive utilspace = null;
+    private CompiledUtilitySpace ourUtilities;
+    private VersionedProfile profiles;
+    private ProfileState profileState;
     private Bid lastSentBid = null;
     private PartyId me;
     protected ProfileInterface profileint;
     private Progress progress;
     private Settings settings;
     private Votes lastvotes;
+    private SplittableRandom random;
+    private SearchBudget.Timer turnTimer;
+    private ExecutorService speculator;
+    private Future<BidPlan> speculation;
+    private SearchBudget speculationBudget;
     private String protocol;
     private int currentRound = 0;
-    private double opponentsDelta = 0;
-    private double ourDelta = 0;
-    private final List<Bid> opponentsBids = new ArrayList<>();
-    private final List<Bid> ourBids = new ArrayList<>();
-    private final List<Move> opponentsMoves = new ArrayList<>();
-    private FrequencyOpponentModel opponentModel = new FrequencyOpponentModel();
-    private final Map<Move, Integer> moveCounter = new HashMap<>();
+    private NegotiationHistory history;
+    private NegotiationStats stats = new NegotiationStats();
+    private final Map<PartyId, Opponent> opponents = new ConcurrentHashMap<>();
+    private final List<Offer> inbox = new ArrayList<>();
+    private Opponent opponent;
+    private long candidateCount = 0; // of the last bid search, for its event
     private double reservationValue = 0.7; // TODO Set it to the value of the reservation bid somehow.
     private BigDecimal ourUtil = new BigDecimal("0.8");
     private BigDecimal theirUtil = new BigDecimal("0.4");
@@ -84,7 +184,9 @@ public class Group21Party extends DefaultParty {
 
     @Override
     public void notifyChange(Inform info) {
+        PartyEvents.InformHandled event = PartyEvents.beginInform();
         try {
+            BidPlan plan = finishSpeculation(info instanceof YourTurn);
             if (info instanceof Settings) {
                 Settings settings = (Settings) info;
                 this.profileint = ProfileConnectionFactory
@@ -93,52 +195,49 @@ public class Group21Party extends DefaultParty {
                 this.progress = settings.getProgress();
                 this.settings = settings;
                 this.protocol = settings.getProtocol().getURI().getPath();
+                Object seed = settings.getParameters().get("seed");
+                this.random = (seed instanceof Number) ? new SplittableRandom(((Number) seed).longValue())
+                        : new SplittableRandom();
+                Object searchBudget = settings.getParameters().get("searchBudget");
+                this.turnTimer = new SearchBudget.Timer(
+                        (searchBudget instanceof Number) ? ((Number) searchBudget).doubleValue() : 0.5);
+                if (Boolean.TRUE.equals(settings.getParameters().get("speculative")))
+                    this.speculator = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "Group21Party speculation");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
 
                 LinearAdditiveUtilitySpace space = (LinearAdditiveUtilitySpace) profileint.getProfile();
-                Map<String, ValueSetUtilities> valueutils = space.getUtilities();
-
-                for (String issue : space.getDomain().getIssues()) {
-                    System.out.println(">>" + issue + " weight : " + space.getWeight(issue));
-                    ValueSetUtilities utils = valueutils.get(issue); // ignore the non−discrete in this demo
-                    if (!(utils instanceof DiscreteValueSetUtilities)) continue;
-                    Map<DiscreteValue, BigDecimal> values = ((DiscreteValueSetUtilities) utils).getUtilities();
-                    for (DiscreteValue value : values.keySet()) {
-                        System.out.println("utility( " + value + ")=" + values.get(value));
-                    }
-                }
+                ourUtilities = compile(space);
+                Object historySize = settings.getParameters().get("historySize");
+                interner = new BidInterner(ourUtilities.getEncoder());
+                history = new NegotiationHistory(interner,
+                        (historySize instanceof Integer) ? (Integer) historySize : 0);
+                profiles = new VersionedProfile(profileint, (profile, previous) -> createProfileState(profile,
+                        (previous == null) ? ourUtilities : previous.getUtilities()), ForkJoinPool.commonPool(),
+                        getReporter());
+                updateUtilSpace();
+                recordProfile(space);
 
             } else if (info instanceof ActionDone) {
                 Action otheract = ((ActionDone) info).getAction();
-                if (otheract instanceof Offer) {
-
-                    lastReceivedBid = ((Offer) otheract).getBid();
-                    try {
-                        opponentsDelta = getOpponentsUtilBasedOnBid(lastReceivedBid) - getOpponentsUtilBasedOnBid(opponentsBids.get(opponentsBids.size() - 1));
-                    } catch (IndexOutOfBoundsException e) {
-                        opponentsDelta = getOpponentsUtilBasedOnBid(lastReceivedBid);
+                if (otheract instanceof Offer && !me.equals(otheract.getActor())) {
+                    inbox.add((Offer) otheract);
+                    if (speculator != null) {
+                        receiveOffers();
+                        speculate();
                     }
-
-                    try {
-                        ourDelta = 0.01;
-
-                        if (lastReceivedBid != null && opponentsBids.size() != 0)
-                            ourDelta = getOurUtility(lastReceivedBid) - getOurUtility(opponentsBids.get(opponentsBids.size() - 1));
-
-                    } catch (IndexOutOfBoundsException e) {
-                        ourDelta = 0.01;
-                        if (lastReceivedBid != null) ourDelta = getOurUtility(lastReceivedBid);
-                    }
-                    //Adding opponent's action, updating their preference model and move counter
-                    opponentsBids.add(lastReceivedBid);
-                    opponentsMoves.add(classifyMove());
-                    updateOpponentPreferenceModel(otheract);
-                    updateMoveCounter();
                 }
             } else if (info instanceof YourTurn) {
-                makeOffer();
+                receiveOffers();
+                makeOffer(plan);
             } else if (info instanceof Finished) {
                 getReporter().log(Level.INFO, "Final outcome:" + info);
+                if (speculator != null)
+                    speculator.shutdownNow();
             } else if (info instanceof Voting) {
+                receiveOffers();
                 lastvotes = vote((Voting) info);
                 getConnection().send(lastvotes);
             } else if (info instanceof OptIn) {
@@ -150,10 +249,35 @@ public class Group21Party extends DefaultParty {
         }
 
         updateRound(info);
+        if (event != null && event.shouldCommit()) {
+            event.inform = info.getClass().getSimpleName();
+            event.round = currentRound;
+            event.commit();
+        }
         //Updating round to be used with the isGood method
         currentRound++;
     }
 
+    /**
+     * Records the weight and the value utilities of every issue of the profile as
+     * {@link PartyEvents.ProfileIssue} events.
+     * @param space the profile
+     */
+    private void recordProfile(LinearAdditiveUtilitySpace space) {
+        for (String issue : space.getDomain().getIssues()) {
+            PartyEvents.ProfileIssue event = PartyEvents.profileIssue();
+            if (event == null)
+                return;
+            ValueSetUtilities utils = space.getUtilities().get(issue);
+            event.profile = space.getName();
+            event.issue = issue;
+            event.weight = space.getWeight(issue).doubleValue();
+            if (utils instanceof DiscreteValueSetUtilities)
+                event.utilities = ((DiscreteValueSetUtilities) utils).getUtilities().toString();
+            event.commit();
+        }
+    }
+
     @Override
     public Capabilities getCapabilities() {
         return new Capabilities(
@@ -197,27 +321,104 @@ public class Group21Party extends DefaultParty {
 
     }
 
+    /**
+     * Adds the offers of other parties that arrived since our last decision to the model and history of their
+     * sender. Offers are only collected in the {@link #inbox} when they arrive, and are processed in one batch when
+     * we have to decide, so a burst of offers is grouped per sender instead of handled one inform at a time.
+     * The offers are interned in the order they were made, then each sender is updated with its own offers, in
+     * parallel on the parallel pool if several parties sent offers. The reference every offer takes in the
+     * {@link #interner} is handed to the history of its sender. The sender of the last offer becomes the
+     * {@link #opponent} we respond to.
+     * @throws InterruptedException if interrupted while waiting for the updates
+     * @throws ExecutionException if an update failed
+     */
+    private void receiveOffers() throws InterruptedException, ExecutionException {
+        if (inbox.isEmpty())
+            return;
+        Map<Opponent, List<Integer>> received = new LinkedHashMap<>();
+        int lastReceivedId = -1;
+        for (Offer offer : inbox) {
+            lastReceivedId = interner.intern(offer.getBid());
+            opponent = opponents.computeIfAbsent(offer.getActor(),
+                    party -> new Opponent(history.getOpponentBids(party)));
+            received.computeIfAbsent(opponent, sender -> new ArrayList<>()).add(lastReceivedId);
+        }
+        lastReceivedBid = interner.getBid(lastReceivedId);
+        inbox.clear();
+
+        ForkJoinPool pool = getParallelPool();
+        if (pool == null || received.size() < 2) {
+            received.forEach(this::updateOpponent);
+            return;
+        }
+        List<Callable<Void>> updates = new ArrayList<>();
+        received.forEach((sender, ids) -> updates.add(() -> {
+            updateOpponent(sender, ids);
+            return null;
+        }));
+        for (Future<Void> update : pool.invokeAll(updates))
+            update.get();
+    }
+
+    /**
+     * @param sender the party that sent the offers
+     * @param ids the ids of its offers in {@link #interner}, in the order they were made
+     */
+    private void updateOpponent(Opponent sender, List<Integer> ids) {
+        PartyEvents.ModelUpdate event = PartyEvents.beginModelUpdate();
+        for (int id : ids)
+            sender.receive(interner, id, getOurUtility(interner.getBid(id)), ourUtilities.getEncoder());
+        if (event != null && event.shouldCommit()) {
+            event.offers = ids.size();
+            event.commit();
+        }
+    }
+
     /**
      * Sending our next offer to the opponent and updating our utility space.
      * If our makeBid() method fails to construct a bid the reservation bid is selected to be sent.
-     * Also, if the opponent's last bid was accepted by isGood() we accept it and end the negotiation.
+     * Also, if the opponent's last bid was accepted by isGood() we accept it and end the negotiation. Acceptance is
+     * checked first with {@link #isGoodWithoutBid(int, BidGoals)}, so no bid is searched for when that already
+     * accepts. A rejection by ACTime does not depend on our bid either, so it is not checked again. The goals of the
+     * turn are worked out once, for both the check and the search.
+     * @param plan the speculatively planned bid, or null. It is only used if it was planned for the current state.
      * @throws IOException
      */
-    private void makeOffer() throws IOException {
+    private void makeOffer(BidPlan plan) throws IOException {
         Action action;
         updateUtilSpace();
-        Bid bid = makeBid();
+        boolean bilateral = protocol.equals("SAOP") || protocol.equals("SHAOP");
+        boolean rejected = false;
+        if (plan == null || !plan.isFor(currentRound, utilspace)) {
+            BidGoals goals = getBidGoals(currentRound);
+            if (bilateral && !Boolean.FALSE.equals(settings.getParameters().get("acceptBeforeBid"))) {
+                if (isGoodWithoutBid(currentRound, goals)) {
+                    getConnection().send(new Accept(me, lastReceivedBid));
+                    return;
+                }
+                rejected = currentRound >= 175;
+            }
+            plan = planBid(currentRound, goals, random, turnTimer.startTurn(progress));
+        } else {
+            turnTimer.countTurn();
+        }
+        ourUtil = plan.getOurGoal();
+        theirUtil = plan.getTheirGoal();
+        Bid bid = plan.getBid();
 
-        if ((protocol.equals("SAOP") || protocol.equals("SHAOP"))
-                && isGood(lastReceivedBid, bid)) {
+        if (bilateral && !rejected && isGood(lastReceivedBid, bid)) {
             action = new Accept(me, lastReceivedBid);
         } else {
             if (!isOurBidGood(bid))
                 bid = utilspace.getReservationBid();
 
+            int id = interner.intern(bid);
+            bid = interner.getBid(id);
             action = new Offer(me, bid);
             lastSentBid = bid;
-            ourBids.add(bid);
+            double utility = getOurUtility(bid);
+            history.addOurBid(id, utility);
+            stats.addOurBid(utility);
         }
         if(action == null)
             action = new Accept(me, lastReceivedBid);
@@ -225,23 +426,78 @@ public class Group21Party extends DefaultParty {
     }
 
     /**
+     * Starts planning our next bid on the background thread, for the round in which our turn is expected.
+     * The plan works on its own split of the random generator and its turn is only counted by the timer if the
+     * plan is used, so throwing it away leaves no trace.
+     */
+    private void speculate() {
+        int round = currentRound + 1;
+        SplittableRandom speculationRandom = random.split();
+        SearchBudget budget = turnTimer.planTurn(progress);
+        speculationBudget = budget;
+        speculation = speculator.submit(() -> {
+            updateUtilSpace();
+            return planBid(round, getBidGoals(round), speculationRandom, budget);
+        });
+    }
+
+    /**
+     * Waits for the speculative planning to finish, so that it never runs at the same time as the handling of an
+     * inform. If the plan is not going to be used its search is cancelled first.
+     * @param use true if the plan is needed
+     * @return the plan, or null if there was none, it is not used or it failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private BidPlan finishSpeculation(boolean use) throws InterruptedException {
+        if (speculation == null)
+            return null;
+        if (!use)
+            speculationBudget.cancel();
+        try {
+            BidPlan plan = speculation.get();
+            return use ? plan : null;
+        } catch (ExecutionException e) {
+            getReporter().log(Level.WARNING, "Speculative bid planning failed", e.getCause());
+            return null;
+        } finally {
+            speculation = null;
+            speculationBudget = null;
+        }
+    }
+
+    /**
+     * @param round the round of the party in which the bid will be made
+     * @param goals the goals for the bid, from {@link #getBidGoals(int)}
+     * @param random the source of randomness for the search
+     * @param budget the time the search for a bid may take
+     * @return the plan for our next bid
+     */
+    private BidPlan planBid(int round, BidGoals goals, SplittableRandom random, SearchBudget budget) {
+        PartyEvents.BidSearch event = PartyEvents.beginBidSearch();
+        BidPlan plan = makeBid(round, goals, random, budget);
+        if (budget.isTruncated())
+            getReporter().log(Level.INFO, "Bid search stopped after " + budget.getElapsedNanos() / 1000000
+                    + " ms, budget was " + budget.getBudgetNanos() / 1000000 + " ms");
+        if (event != null && event.shouldCommit()) {
+            event.round = round;
+            event.search = (bidSpace != null) ? "index" : (boundedSearch != null) ? "bounded" : "extended";
+            event.candidates = candidateCount;
+            event.ourGoal = plan.getOurGoal().doubleValue();
+            event.theirGoal = plan.getTheirGoal().doubleValue();
+            event.truncated = budget.isTruncated();
+            event.commit();
+        }
+        return plan;
+    }
+
+    /**
+     * Votes for the offers that {@link #isGood(Bid, Bid)} accepts without a bid of ours, which is none of them, so no
+     * offer has to be evaluated.
      * @param voting the {@link Voting} object containing the options
-     * @return our next Votes.
+     * @return our next Votes, which are empty.
      */
     private Votes vote(Voting voting) {
-        Object val = settings.getParameters().get("minPower");
-        Integer minpower = (val instanceof Integer) ? (Integer) val : 2;
-        val = settings.getParameters().get("maxPower");
-        Integer maxpower = (val instanceof Integer) ? (Integer) val
-                : Integer.MAX_VALUE;
-
-        Set<Vote> votes = voting.getBids().stream().distinct()
-                .filter(offer -> {
-                    return isGood(offer.getBid(), null);
-                })
-                .map(offer -> new Vote(me, offer.getBid(), minpower, maxpower))
-                .collect(Collectors.toSet());
-        return new Votes(me, votes);
+        return new Votes(me, Collections.emptySet());
     }
 
 
@@ -249,62 +505,375 @@ public class Group21Party extends DefaultParty {
      * Updating util space and setting reservation value. Some reservation bids are interpreted as having utility of 0.
      * Hence, 0.6 is a value we chose to replace the reservation value for those exceptional cases. (A bid with lower utility
      * could still be accepted in ACTime after 175 rounds).
+     * The state of a changed profile is prepared in the background, and the previous one is used until it is ready.
      * @return the updated utility space
      * @throws IOException
      */
     private LinearAdditive updateUtilSpace() throws IOException {
-        Profile newutilspace = profileint.getProfile();
-        if (!newutilspace.equals(utilspace)) {
-            utilspace = (LinearAdditive) newutilspace;
-            extendedUtilSpace = new ExtendedUtilSpace(utilspace);
-        }
+        ProfileState state = profiles.get();
+        if (state != profileState) {
+            profileState = state;
+            utilspace = state.getProfile();
+            if (ourUtilities != state.getUtilities()) {
+                ourUtilities = state.getUtilities();
+                stats = createStats();
+            }
+            bidSpace = state.getBidSpace();
+            boundedSearch = state.getBoundedSearch();
+            extendedUtilSpace = state.getExtendedUtilSpace();
 
-        reservationValue = getOurUtility(utilspace.getReservationBid());
-        if(reservationValue <= 0.01){
-            reservationValue = 0.6;
+            reservationValue = state.getReservationUtility();
+            if(reservationValue <= 0.01){
+                reservationValue = 0.6;
+            }
         }
 
         return utilspace;
     }
 
     /**
-     *  Make bid produces the next bid to be offered to the opponent. It uses the logic for determining what type of move the next bid will be.
-     *  It also prioritizes this agent's utility goal (which is determined based on the move) over the opponent's.
-     * @return bid to be offered to the opponent
+     * Prepares everything derived from a profile. Called from the background for changed profiles, so it only
+     * reads the settings and the arguments.
+     * @param profile the profile
+     * @param known a compiled profile that is reused if it is of the same profile
+     * @return the state of the profile
+     */
+    private ProfileState createProfileState(LinearAdditive profile, CompiledUtilitySpace known) {
+        PartyEvents.ProfileRefresh event = PartyEvents.beginProfileRefresh();
+        CompiledUtilitySpace utilities = known.getProfile().equals(profile) ? known : compile(profile);
+        BidSpaceIndex index = Boolean.FALSE.equals(settings.getParameters().get("sharedIndex"))
+                ? createBidSpace(utilities)
+                : BidSpaceCache.SHARED.get(utilities, isOffHeapIndex(), this::createBidSpace);
+        boolean bounded = index == null && !Boolean.FALSE.equals(settings.getParameters().get("boundedSearch"));
+        BranchAndBoundSearch search = bounded ? new BranchAndBoundSearch(utilities) : null;
+        ExtendedUtilSpace extended = (index == null && !bounded) ? new ExtendedUtilSpace(profile) : null;
+        Bid reservationBid = profile.getReservationBid();
+        double reservationUtility = (reservationBid == null) ? 0 : utilities.getUtility(reservationBid);
+        if (event != null && event.shouldCommit()) {
+            event.profile = profile.getName();
+            event.bids = (index == null) ? 0 : index.size();
+            event.offHeap = index != null && index.isOffHeap();
+            event.commit();
+        }
+        return new ProfileState(profile, utilities, index, search, extended, reservationUtility);
+    }
+
+    /**
+     * @param space the profile to compile
+     * @return the compiled profile, which checks its results if the checkUtilities parameter is set
+     */
+    private CompiledUtilitySpace compile(LinearAdditive space) {
+        Object val = settings.getParameters().get("checkUtilities");
+        return new CompiledUtilitySpace(space, Boolean.TRUE.equals(val));
+    }
+
+    /**
+     * Re-evaluates the history with the current profile.
+     * @return statistics of all bids kept in the history
+     */
+    private NegotiationStats createStats() {
+        history.reevaluate(ourUtilities);
+        NegotiationStats newStats = new NegotiationStats();
+        NegotiationHistory.Track ourBids = history.getOurBids();
+        for (int n = ourBids.getFirst(); n < ourBids.size(); n++)
+            newStats.addOurBid(ourBids.getUtility(n));
+        for (Opponent other : opponents.values())
+            other.updateStats();
+        return newStats;
+    }
+
+    /**
+     * @return the pool to score large candidate sets on, or null if the parallel parameter is false
      */
-    private Bid makeBid() {
-        Move move = getOurNextMove();
+    private ForkJoinPool getParallelPool() {
+        Object val = settings.getParameters().get("parallel");
+        return Boolean.FALSE.equals(val) ? null : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @return true if the batchEvaluation parameter is set
+     */
+    private boolean isBatchEvaluation() {
+        return Boolean.TRUE.equals(settings.getParameters().get("batchEvaluation"));
+    }
+
+    /**
+     * @return true if the offHeapIndex parameter is set
+     */
+    private boolean isOffHeapIndex() {
+        return Boolean.TRUE.equals(settings.getParameters().get("offHeapIndex"));
+    }
+
+    /**
+     * @return the smallest number of candidates to score in parallel
+     */
+    private int getParallelThreshold() {
+        Object val = settings.getParameters().get("parallelThreshold");
+        return (val instanceof Integer) ? (Integer) val : 50000;
+    }
+
+    /**
+     * Builds the sorted bid index for the profile, or loads it from the indexCache directory.
+     * @param space the compiled profile to index
+     * @return the index, or null if the domain is too large to enumerate, in which case
+     * {@link BranchAndBoundSearch} or {@link ExtendedUtilSpace} has to be used.
+     */
+    private BidSpaceIndex createBidSpace(CompiledUtilitySpace space) {
+        Object val = settings.getParameters().get("indexCache");
+        Path cache = (val instanceof String) ? Paths.get((String) val) : null;
+        boolean offHeap = isOffHeapIndex();
+        if (cache != null) {
+            try {
+                BidSpaceIndex index = BidSpaceIndexFile.load(cache, space, offHeap);
+                if (index != null)
+                    return index;
+            } catch (IOException | RuntimeException e) {
+                // any file that can not be loaded is rebuilt and replaced
+                getReporter().log(Level.WARNING, "Rebuilding stored bid space", e);
+            }
+        }
+
+        BidSpaceIndex index;
+        try {
+            index = offHeap ? BidSpaceIndex.createOffHeap(space) : BidSpaceIndex.create(space);
+        } catch (IllegalArgumentException e) {
+            getReporter().log(Level.INFO, "Not indexing bid space: " + e.getMessage());
+            return null;
+        }
+        if (cache != null) {
+            try {
+                BidSpaceIndexFile.store(cache, space, index);
+            } catch (IOException e) {
+                getReporter().log(Level.WARNING, "Failed to store bid space", e);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Works out the utility goals of our next bid. It uses the logic for determining what type of move the next bid
+     * will be, and with an index also the window of bids around our goal.
+     * @param round the round of the party in which the bid will be made
+     * @return the goals for the bid
+     */
+    private BidGoals getBidGoals(int round) {
+        Move move = getOurNextMove(round);
         Goal[] goals = ourMoveToGoalForBoth(move);
-        BigDecimal ourUtilityGoal = getUtilityGoalForUs(goals[0]);
-        BigDecimal theirUtilityGoal = getUtilityGoalForThem(goals[1]);
-        //This is where the bid is selected. Get bids has some tolerance so bids close to our goal will be selected.
+        BigDecimal ourUtilityGoal = getUtilityGoalForUs(ourUtil, goals[0]);
+        BigDecimal theirUtilityGoal = getUtilityGoalForThem(theirUtil, goals[1]);
+        int[] window = (bidSpace != null) ? getOurWindow(ourUtilityGoal) : null;
+        return new BidGoals(ourUtilityGoal, theirUtilityGoal, window);
+    }
+
+    /**
+     *  Make bid produces the next bid to be offered to the opponent.
+     *  It prioritizes this agent's utility goal (which is determined based on the move) over the opponent's.
+     * @param round the round of the party in which the bid will be made
+     * @param goals the goals for the bid, from {@link #getBidGoals(int)}
+     * @param random the source of randomness for the search
+     * @param budget the time the search for a bid may take
+     * @return bid to be offered to the opponent, with the utility goals it was selected for
+     */
+    private BidPlan makeBid(int round, BidGoals goals, SplittableRandom random, SearchBudget budget) {
+        BigDecimal ourUtilityGoal = goals.getOurGoal();
+        BigDecimal theirUtilityGoal = goals.getTheirGoal();
+        Bid bid;
+        if (goals.getWindow() != null)
+            bid = makeIndexedBid(goals.getWindow(), theirUtilityGoal, random, budget);
+        else if (boundedSearch != null)
+            bid = makeBoundedBid(ourUtilityGoal, theirUtilityGoal, random, budget);
+        else
+            bid = makeBid(ourUtilityGoal, theirUtilityGoal, random, budget);
+        return new BidPlan(bid, ourUtilityGoal, theirUtilityGoal, round, utilspace);
+    }
+
+    /**
+     * Selects the bid from {@link BidSpaceIndex}.
+     * @param window the window around our utility goal, from {@link #getOurWindow(BigDecimal)}
+     * @param theirUtilityGoal the opponent's ideal utility for the next bid
+     * @param random the source of randomness for the search
+     * @param budget the time the search for a bid may take
+     * @return bid to be offered to the opponent
+     */
+    private Bid makeIndexedBid(int[] window, BigDecimal theirUtilityGoal, SplittableRandom random,
+                               SearchBudget budget) {
+
+        //This is where the bid is selected. The window has some tolerance so bids close to our goal will be selected.
+        int from = window[0];
+        int to = window[1];
+        candidateCount = to - from;
+
+        double theirMax = theirUtilityGoal.doubleValue();
+        double theirMin = theirUtilityGoal.subtract(BigDecimal.valueOf(0.1)).doubleValue();
+        JointUtilityGrid grid = getBidGrid();
+        int choice = -1;
+        if (grid != null)
+            choice = grid.sample(from, to, theirMin, theirMax, random, budget);
+        else if (bidSpace.isOffHeap() && opponent != null && opponent.getModel().isReady())
+            choice = sampleWindow(from, to, theirMin, theirMax, random, budget);
+
+        if (choice != -1)
+            return bidSpace.getBid(choice);
+        else
+            return bidSpace.getBid(from + random.nextInt(to - from));
+    }
+
+    /**
+     * Picks a uniformly random bid in a window of an index off the heap, which has no grid so that nothing
+     * proportional to the domain is allocated on the heap. The window is scanned instead.
+     * @param from first position of the window
+     * @param to position after the last one of the window
+     * @param theirMin lower bound of the opponent's modelled utility, exclusive
+     * @param theirMax upper bound of the opponent's modelled utility, exclusive
+     * @param random the source of randomness for the search
+     * @param budget the time the scan may take
+     * @return the position of the chosen bid, or -1 if there is no such bid in the part of the window scanned
+     */
+    private int sampleWindow(int from, int to, double theirMin, double theirMax, SplittableRandom random,
+                             SearchBudget budget) {
+        IncrementalOpponentModel model = opponent.getModel();
+        int count = 0;
+        int choice = -1;
+        for (int position = from; position < to; position++) {
+            if ((position - from) % BidSampleTask.CHUNK_SIZE == 0 && budget.isExhausted())
+                break;
+            double utility = model.getUtility(bidSpace, position);
+            if (utility > theirMin && utility < theirMax && random.nextInt(++count) == 0)
+                choice = position;
+        }
+        return choice;
+    }
+
+    /**
+     * @return the grid over the current index and the model of the {@link #opponent}, or null if there is no
+     * opponent with a ready model yet, or the index is off the heap
+     */
+    private JointUtilityGrid getBidGrid() {
+        BidSpaceIndex index = profileState.getBidSpace();
+        if (opponent == null || !opponent.getModel().isReady() || index == null || index.isOffHeap())
+            return null;
+        return opponent.getGrid(index, getParallelPool(), getParallelThreshold(), isBatchEvaluation());
+    }
+
+    /**
+     * @param ourUtilityGoal our ideal utility for the next bid
+     * @return the first position in {@link #bidSpace} and the position after the last one that
+     * {@link #makeIndexedBid} selects from. If there are no bids close to the goal, these are the bids close to
+     * our maximum utility.
+     */
+    private int[] getOurWindow(BigDecimal ourUtilityGoal) {
+        double ourGoal = ourUtilityGoal.doubleValue();
+        int from = bidSpace.lowerBound(ourGoal - bidSpace.getTolerance());
+        int to = bidSpace.upperBound(ourGoal);
+        if (from == to) {
+            // if we can't find good bid, get max util bid....
+            from = bidSpace.lowerBound(bidSpace.getMax() - bidSpace.getTolerance());
+            to = bidSpace.size();
+        }
+        return new int[] { from, to };
+    }
+
+    /**
+     * Fallback of {@link #makeIndexedBid} for domains that are too large to index, which builds the bids with
+     * {@link BranchAndBoundSearch} instead of enumerating them. Same as with the index, if there are no bids close
+     * to our goal the bids close to our maximum utility are used, and if none of them suits the opponent a random
+     * one is picked.
+     * @param ourUtilityGoal our ideal utility for the next bid
+     * @param theirUtilityGoal the opponent's ideal utility for the next bid
+     * @param random the source of randomness for the search
+     * @param budget the time the search for a bid may take
+     * @return bid to be offered to the opponent
+     */
+    private Bid makeBoundedBid(BigDecimal ourUtilityGoal, BigDecimal theirUtilityGoal, SplittableRandom random,
+                               SearchBudget budget) {
+        double ourMax = ourUtilityGoal.doubleValue();
+        double ourMin = ourMax - boundedSearch.getTolerance();
+        double theirMax = theirUtilityGoal.doubleValue();
+        double theirMin = theirUtilityGoal.subtract(BigDecimal.valueOf(0.1)).doubleValue();
+        IncrementalOpponentModel model = (opponent != null && opponent.getModel().isReady())
+                ? opponent.getModel() : null;
+
+        List<int[]> options = searchBounded(ourMin, ourMax, model, theirMin, theirMax, random, budget);
+        if (options.isEmpty()) {
+            // if we can't find good bid, get max util bid....
+            ourMax = boundedSearch.getMax();
+            ourMin = ourMax - boundedSearch.getTolerance();
+            options = searchBounded(ourMin, ourMax, model, theirMin, theirMax, random, budget);
+        }
+        if (options.isEmpty())
+            options = boundedSearch.search(ourMin, ourMax, null, 0, 0, 1, random, SearchBudget.UNLIMITED);
+        candidateCount = options.size();
+        return ourUtilities.getEncoder().decode(options.get(random.nextInt(options.size())), 0);
+    }
+
+    /**
+     * @return the bids in our window that suit the opponent, or if there are none, one bid in our window only. Empty
+     * if there are no bids in our window, or none was found within the budget.
+     */
+    private List<int[]> searchBounded(double ourMin, double ourMax, IncrementalOpponentModel model, double theirMin,
+                                      double theirMax, SplittableRandom random, SearchBudget budget) {
+        List<int[]> options = Collections.emptyList();
+        if (model != null)
+            options = boundedSearch.search(ourMin, ourMax, model, theirMin, theirMax,
+                    BranchAndBoundSearch.DEFAULT_HITS, random, budget);
+        if (options.isEmpty())
+            options = boundedSearch.search(ourMin, ourMax, null, 0, 0, 1, random, budget);
+        return options;
+    }
+
+    /**
+     * Fallback of {@link #makeIndexedBid} that searches {@link ExtendedUtilSpace} for domains that are too large
+     * to index, if the boundedSearch parameter is false.
+     * @param ourUtilityGoal our ideal utility for the next bid
+     * @param theirUtilityGoal the opponent's ideal utility for the next bid
+     * @param random the source of randomness for the search
+     * @param budget the time the search for a bid may take
+     * @return bid to be offered to the opponent
+     */
+    private Bid makeBid(BigDecimal ourUtilityGoal, BigDecimal theirUtilityGoal, SplittableRandom random,
+                        SearchBudget budget) {
+        //Get bids has some tolerance so bids close to our goal will be selected.
         ImmutableList<Bid> options = extendedUtilSpace.getBids(ourUtilityGoal);
         if (options.size().equals(BigInteger.ZERO)) {
             // if we can't find good bid, get max util bid....
             options = extendedUtilSpace.getBids(extendedUtilSpace.getMax());
         }
 
-        List<Bid> bidsForBoth = new ArrayList<>();
-        for (Bid bid : options) {
-            double opponentsutil = getOpponentsUtilBasedOnBid(bid);
-            if (opponentsutil == -1)
-                continue;
-            if (opponentsutil < theirUtilityGoal.doubleValue() && opponentsutil > theirUtilityGoal.subtract(BigDecimal.valueOf(0.1)).doubleValue())
-                bidsForBoth.add(bid);
-        }
+        double theirMax = theirUtilityGoal.doubleValue();
+        double theirMin = theirUtilityGoal.subtract(BigDecimal.valueOf(0.1)).doubleValue();
+        Predicate<Bid> forBoth = bid -> isForBoth(bid, theirMin, theirMax);
+        long size = options.size().longValue();
+        candidateCount = size;
+        BidSampleTask.Sample bidForBoth;
+        ForkJoinPool pool = getParallelPool();
+        if (pool != null && size >= getParallelThreshold())
+            bidForBoth = pool.invoke(new BidSampleTask(options, 0, size, forBoth, random, budget));
+        else
+            bidForBoth = BidSampleTask.sample(options, 0, size, forBoth, random, budget);
 
-        if (bidsForBoth.size() != 0)
-            return bidsForBoth.get(new Random().nextInt(bidsForBoth.size()));
+        if (bidForBoth.count != 0)
+            return bidForBoth.bid;
         else
-            return options.get(new Random().nextInt(options.size().intValue()));
+            return options.get(BigInteger.valueOf(random.nextLong(size)));
+    }
+
+    /**
+     * @return true if the modelled opponent utility of the bid is strictly between theirMin and theirMax
+     */
+    private boolean isForBoth(Bid bid, double theirMin, double theirMax) {
+        double opponentsutil = getOpponentsUtilBasedOnBid(bid);
+        if (opponentsutil == -1)
+            return false;
+        return opponentsutil < theirMax && opponentsutil > theirMin;
     }
 
     /**
      * Get utility goal produces the ideal utility for the next bid based on the current utility and ourGoal
+     * @param ourUtil our current utility goal
      * @param ourGoal determines whether the agent will increase or decrease utility
      * @return the ideal utility of our agent for the next bid
      */
-    private BigDecimal getUtilityGoalForUs(Goal ourGoal) {
+    private BigDecimal getUtilityGoalForUs(BigDecimal ourUtil, Goal ourGoal) {
         double OUR_INC_CONSTANT = 0.07;
         double OUR_DEC_CONSTANT = 0.04;
 
@@ -331,10 +900,11 @@ public class Group21Party extends DefaultParty {
 
     /**
      * Same as getUtilityGoalForUs but determining opponent's ideal utility for the next bid.
+     * @param theirUtil the opponent's current utility goal
      * @param theirGoal determines whether the agent will increase or decrease utility for opponent
      * @return the ideal utility of the opponent for the next bid
      */
-    private BigDecimal getUtilityGoalForThem(Goal theirGoal) {
+    private BigDecimal getUtilityGoalForThem(BigDecimal theirUtil, Goal theirGoal) {
         double THEIR_INC_CONSTANT = 0.03;
         double THEIR_DEC_CONSTANT = 0.08;
 
@@ -366,8 +936,7 @@ public class Group21Party extends DefaultParty {
         if (lastReceivedBid == null || lastSentBid == null)
             return null;
 
-        double sum = ourBids.stream().mapToDouble(this::getOurUtility).sum();
-        double avg = sum / ourBids.size();
+        double avg = stats.getOurAverageUtility();
 
         double previousSentUtil = getOurUtility(lastSentBid);
 
@@ -413,20 +982,16 @@ public class Group21Party extends DefaultParty {
 
         if (lastReceivedBid == null || lastSentBid == null)
             return null;
-        double[] utils = opponentsBids.stream().mapToDouble(this::getOurUtility).toArray();
-
-        if (utils.length < 2)
+        NegotiationStats opponentStats = opponent.getStats();
+        if (opponentStats.getOpponentBidCount() < 2)
             return null;
 
-        double sumOfDeltas = 0;
-        for (int i = 1; i < utils.length; i++) {
-            double delta = utils[i] - utils[i - 1];
-            sumOfDeltas += delta;
-        }
+        double sumOfDeltas = opponentStats.getSumOfOpponentDeltas();
         if (sumOfDeltas == 0)
             return null;
 
-        double averageDelta = sumOfDeltas / utils.length;
+        double averageDelta = sumOfDeltas / opponentStats.getOpponentBidCount();
+        double ourDelta = opponent.getOurDelta();
 
         double selfishnessTax = (isSelfish()) ? 0.05 : 0.001; // add it in decrease and subtract it from increase
 
@@ -476,11 +1041,63 @@ public class Group21Party extends DefaultParty {
             return false;
 
         //After 175, use ACTime
-        if (currentRound < 175)
-            return ACNext(oppBid, ourBid);
-        else
-            return ACTime();
+        boolean acNext = currentRound < 175;
+        boolean accepted = acNext ? ACNext(oppBid, ourBid) : ACTime();
+        PartyEvents.Acceptance event = PartyEvents.acceptance();
+        if (event != null)
+            recordAcceptance(event, acNext, false, acNext ? getOurUtility(ourBid) : getMinimumUtility(), accepted);
+        return accepted;
+    }
 
+    /**
+     * Fills in and records an acceptance decision on {@link #lastReceivedBid}.
+     * @param event the event to record
+     * @param acNext true if decided by ACNext, false if by ACTime
+     * @param beforeBid true if decided before our next bid was searched for
+     * @param threshold the lowest utility that the criterion accepts
+     * @param accepted the decision
+     */
+    private void recordAcceptance(PartyEvents.Acceptance event, boolean acNext, boolean beforeBid, double threshold,
+                                  boolean accepted) {
+        event.round = currentRound;
+        event.criterion = acNext ? "ACNext" : "ACTime";
+        event.beforeBid = beforeBid;
+        event.utility = getOurUtility(lastReceivedBid);
+        event.threshold = threshold;
+        event.accepted = accepted;
+        event.commit();
+    }
+
+    /**
+     * First stage of a turn, that decides whether the opponent's last bid is accepted before our next bid is searched
+     * for. ACTime does not depend on our bid. ACNext compares with our utility of the bid we would plan, which lies
+     * in the window around our utility goal, so when the opponent's bid is worth at least the best bid of that
+     * window it is accepted whatever bid the search would pick.
+     * @param round the current round of the party
+     * @param goals the goals for the bid we would plan, from {@link #getBidGoals(int)}
+     * @return true if {@link #isGood(Bid, Bid)} accepts the opponent's last bid for any bid we would plan, false if
+     * our next bid is needed to decide
+     */
+    private boolean isGoodWithoutBid(int round, BidGoals goals) {
+        if (lastReceivedBid == null)
+            return false;
+        if (round >= 175) {
+            boolean accepted = ACTime();
+            PartyEvents.Acceptance event = PartyEvents.acceptance();
+            if (event != null)
+                recordAcceptance(event, false, true, getMinimumUtility(), accepted);
+            return accepted;
+        }
+        int[] window = goals.getWindow();
+        if (window == null)
+            return false;
+
+        double best = bidSpace.getUtility(window[1] - 1);
+        boolean accepted = best <= getOurUtility(lastReceivedBid);
+        PartyEvents.Acceptance event = PartyEvents.acceptance();
+        if (event != null)
+            recordAcceptance(event, true, true, best, accepted);
+        return accepted;
     }
 
     /**
@@ -495,7 +1112,7 @@ public class Group21Party extends DefaultParty {
             return false;
         }
 
-        return getOurUtility(bid) >= getOurUtility(utilspace.getReservationBid());
+        return getOurUtility(bid) >= profileState.getReservationUtility();
     }
 
     /**
@@ -516,14 +1133,15 @@ public class Group21Party extends DefaultParty {
      * @return true or false
      */
     private boolean ACTime() {
+        return getMinimumUtility() <= getOurUtility(lastReceivedBid);
+    }
 
-        double minimumUtility = getOurUtility(utilspace.getReservationBid());
-
-        minimumUtility += (200 - currentRound) * 0.005;
-
-        return minimumUtility
-                <= getOurUtility(lastReceivedBid);
-
+    /**
+     * @return the lowest utility that ACTime accepts in the current round, which goes down from above the
+     * reservation utility to it at round 200
+     */
+    private double getMinimumUtility() {
+        return profileState.getReservationUtility() + (200 - currentRound) * 0.005;
     }
 
     /**
@@ -532,15 +1150,16 @@ public class Group21Party extends DefaultParty {
      * then we simply act in an absolut Tit-for-Tat manner and mirror their move.
      * If the move was not made by mistake then if the move was an unfortunate one our next move will be fortunate. If the move was a selfish one then if the
      * opponent is classified as selfish (by isSelfish()) the agent also responds with a selfish move, otherwise with a fortunate one.
+     * @param round the round of the party in which the move will be made
      * @return the type of move the agent will make.
      */
-    private Move getOurNextMove() {
+    private Move getOurNextMove(int round) {
         Move lastMove = lastOpponentMove();
         // If it is too early just model
-        if (currentRound <= 20)
+        if (round <= 20)
             return lastMove;
 
-        if (!isByMistake(lastMove)) {
+        if (!isByMistake(lastMove, round)) {
             switch (lastMove) {
                 case UNFORTUNATE:
                     return Move.FORTUNATE;
@@ -561,18 +1180,15 @@ public class Group21Party extends DefaultParty {
      * Determined if a move was classified by "mistake". This could have arisen from the opponent model not being completely accurate
      * to the opponent's utility function.
      * @param move that was made
+     * @param round the current round of the party
      * @return true or false
      */
-    private boolean isByMistake(Move move) {
-        if (moveCounter.get(move) <= 2)
+    private boolean isByMistake(Move move, int round) {
+        int count = (opponent == null) ? 0 : opponent.getMoveCount(move);
+        if (count <= 2)
             return true;
 
-        return moveCounter.get(move) < currentRound / 12;
-    }
-
-    private void updateMoveCounter() {
-        Move lastMove = lastOpponentMove();
-        moveCounter.put(lastMove, moveCounter.getOrDefault(lastMove, 1));
+        return count < round / 12;
     }
 
     /**
@@ -581,9 +1197,12 @@ public class Group21Party extends DefaultParty {
      */
     private boolean isSelfish() {
 
-        int count = moveCounter.getOrDefault(Move.SELFISH, 0);
+        if (opponent == null)
+            return false;
+
+        int count = opponent.getMoveCount(Move.SELFISH);
 
-        return count > opponentsMoves.size() / 16; //16 could be optimized
+        return count > opponent.getBids().size() / 16; //16 could be optimized
     }
 
     /**
@@ -591,71 +1210,32 @@ public class Group21Party extends DefaultParty {
      * @return Move
      */
     private Move lastOpponentMove() {
-        if (opponentsMoves.size() == 0) {
+        if (opponent == null) {
             return Move.SELFISH;
         }
-        return opponentsMoves.get(opponentsMoves.size() - 1);
+        return opponent.getLastMove();
     }
 
     /**
      * Calculates utility of bid based on opponent model constructed by the agent.
      * @param bid
-     * @return double utility
+     * @return double utility, or -1 if the opponent model is not initialised yet
      */
     private double getOpponentsUtilBasedOnBid(Bid bid) {
-        try {
-            return opponentModel.getUtility(bid).doubleValue();
-        } catch (IllegalStateException e) {
+        if (opponent == null)
             return -1;
-        }
-
-    }
-
-    /**
-     * Method to classify the current move made by the opponent
-     *
-     * @return The move of the opponent
-     */
-    private Move classifyMove() {
-        if (ourDelta > 0 && opponentsDelta < 0)
-            return Move.CONCESSION;
-        else if (ourDelta < 0 && opponentsDelta < 0)
-            return Move.UNFORTUNATE;
-        else if (ourDelta < 0 && opponentsDelta > 0)
-            return Move.SELFISH;
-        else
-            return Move.FORTUNATE;
+        return opponent.getUtility(bid);
     }
 
     private double getOurUtility(Bid bid) {
 
-        return utilspace.getUtility(bid).doubleValue();
+        return ourUtilities.getUtility(bid);
     }
 
     /**
-     * Updates this agent's model of the opponent's utility function based on the action (offer) made by the opponent.
-     * @param action
+     * @return the bids exchanged so far, null before the settings arrived
      */
-    private void updateOpponentPreferenceModel(Action action) {
-        if (opponentModel.getDomain() == null) {
-
-            if(utilspace == null)
-                return;
-
-            opponentModel = opponentModel.with(utilspace.getDomain(), lastReceivedBid); // Find which bid probably represents his reservation bid
-        } else
-            opponentModel = opponentModel.with(action, progress);
+    NegotiationHistory getHistory() {
+        return history;
     }
 }
-
-enum Move {
-    CONCESSION,
-    UNFORTUNATE,
-    SELFISH,
-    FORTUNATE
-}
-
-enum Goal {
-    INCREASE,
-    DECREASE
-}
@@ -0,0 +1,207 @@
+package collabai.group21;
+
+import geniusweb.issuevalue.Bid;
+
+/**
+ * Frequency opponent model that is updated in place. It computes the same
+ * utilities as {@link geniusweb.opponentmodel.FrequencyOpponentModel}: all
+ * issues have equal weight and the utility of a value is the fraction of the
+ * counted bids that contained it. Like FrequencyOpponentModel, the fraction
+ * of every value and the average over the issues are rounded half up to
+ * {@link #DECIMALS} decimals. The rounded fractions are kept as integers in
+ * units of the last decimal, so a utility is an integer sum of fractions that
+ * is only divided at the end.
+ * <p>
+ * The counts and fractions are int arrays indexed by the issue and value
+ * numbers of a {@link BidEncoder}, so evaluations do not allocate. Unlike
+ * FrequencyOpponentModel, an uninitialised model is reported by
+ * {@link #isReady()} instead of by exceptions.
+ */
+final class IncrementalOpponentModel {
+
+    /**
+     * Number of decimals FrequencyOpponentModel rounds to.
+     */
+    static final int DECIMALS = 4;
+
+    private static final long SCALE = 10000;
+
+    private BidEncoder encoder;
+    private int[][] counts;
+    private int[][] fractions;
+    private int totalBids = 0;
+    private long version = 0;
+
+    /**
+     * @return true if the model has been initialised with a domain
+     */
+    boolean isReady() {
+        return encoder != null;
+    }
+
+    /**
+     * (Re)initialises the model without any counted bids.
+     * @param encoder the encoder of the domain of the negotiation
+     */
+    void init(BidEncoder encoder) {
+        this.encoder = encoder;
+        this.counts = new int[encoder.getIssueCount()][];
+        this.fractions = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new int[encoder.getValueCount(i)];
+            fractions[i] = new int[counts[i].length];
+        }
+        this.totalBids = 0;
+        version++;
+    }
+
+    /**
+     * Counts the values of a bid made by the opponent.
+     * @param bid the bid offered by the opponent
+     * @throws IllegalStateException if the model is not ready
+     */
+    void update(Bid bid) {
+        checkReady();
+        for (int i = 0; i < counts.length; i++)
+            count(i, encoder.indexOf(i, bid.getValue(encoder.getIssue(i))));
+        counted();
+    }
+
+    /**
+     * Counts the values of a bid made by the opponent, without encoding it.
+     * @param interner the interner of the domain of the model
+     * @param id       the id of the bid offered by the opponent
+     * @throws IllegalStateException if the model is not ready
+     */
+    void update(BidInterner interner, int id) {
+        checkReady();
+        for (int i = 0; i < counts.length; i++)
+            count(i, interner.getValueIndex(id, i));
+        counted();
+    }
+
+    private void count(int issue, int value) {
+        if (value != -1)
+            counts[issue][value]++;
+    }
+
+    /**
+     * Recomputes the fractions for the new number of counted bids. All of
+     * them change with it, not only those of the counted values.
+     */
+    private void counted() {
+        totalBids++;
+        for (int i = 0; i < counts.length; i++)
+            for (int value = 0; value < counts[i].length; value++)
+                fractions[i][value] = (int) divideHalfUp(counts[i][value] * SCALE, totalBids);
+        version++;
+    }
+
+    int getTotalBids() {
+        return totalBids;
+    }
+
+    /**
+     * @return a number that changes whenever the utilities of the model change
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the fraction of the counted bids that had the value for the
+     *         issue, rounded and in units of the last decimal
+     */
+    int getFraction(int issue, int value) {
+        return fractions[issue][value];
+    }
+
+    /**
+     * @return the rounded fractions of every value of the issue, by value
+     *         index, in units of the last decimal. The array is shared and
+     *         must not be modified.
+     */
+    int[] getFractions(int issue) {
+        return fractions[issue];
+    }
+
+    int getIssueCount() {
+        return counts.length;
+    }
+
+    /**
+     * @param bid the bid to evaluate
+     * @return the estimated utility of the bid for the opponent
+     * @throws IllegalStateException if the model is not ready
+     */
+    double getUtility(Bid bid) {
+        checkReady();
+        if (totalBids == 0)
+            return 1;
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int value = encoder.indexOf(i, bid.getValue(encoder.getIssue(i)));
+            if (value != -1)
+                sum += fractions[i][value];
+        }
+        return toUtility(sum);
+    }
+
+    /**
+     * @param interner the interner of the domain of the model
+     * @param id       the id of the bid to evaluate
+     * @return the estimated utility of the bid for the opponent
+     * @throws IllegalStateException if the model is not ready
+     */
+    double getUtility(BidInterner interner, int id) {
+        checkReady();
+        if (totalBids == 0)
+            return 1;
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int value = interner.getValueIndex(id, i);
+            if (value != -1)
+                sum += fractions[i][value];
+        }
+        return toUtility(sum);
+    }
+
+    /**
+     * @param index    an index of the same domain
+     * @param position position of the bid in the index
+     * @return the estimated utility of the bid for the opponent
+     * @throws IllegalStateException if the model is not ready
+     */
+    double getUtility(BidSpaceIndex index, int position) {
+        checkReady();
+        if (totalBids == 0)
+            return 1;
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++)
+            sum += fractions[i][index.getValueIndex(position, i)];
+        return toUtility(sum);
+    }
+
+    /**
+     * @param fractionSum the sum of the rounded fractions of the values of a
+     *                    bid, see {@link #getFraction(int, int)}
+     * @return the estimated utility of the bid for the opponent
+     */
+    double toUtility(long fractionSum) {
+        if (totalBids == 0)
+            return 1;
+        return divideHalfUp(fractionSum, counts.length) / (double) SCALE;
+    }
+
+    /**
+     * @return the quotient of two non-negative numbers, rounded half up
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        return (2 * dividend + divisor) / (2 * divisor);
+    }
+
+    private void checkReady() {
+        if (encoder == null)
+            throw new IllegalStateException("Opponent model is not initialised");
+    }
+}
@@ -0,0 +1,329 @@
+package collabai.group21;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Grid over our utility and the modelled opponent utility of all bids in a
+ * {@link BidSpaceIndex}, to find the bids inside a rectangle of both
+ * utilities. Along our utility the grid follows the index: every block of
+ * {@link #BLOCK_SIZE} consecutive positions is a column. Within a column the
+ * positions are grouped into {@link #BUCKETS} equal ranges of opponent
+ * utility. A query only visits the cells that overlap the rectangle.
+ * <p>
+ * A column is re-bucketed, in linear time, the first time a query touches it
+ * after the opponent model changed, with the utilities of its bids evaluated
+ * from the {@link IncrementalOpponentModel}. Columns outside the utility
+ * windows we actually search are never evaluated. A counted bid changes the
+ * rounded fraction of almost every value, so there is nothing to gain from
+ * updating the utilities of only the bids with the counted values.
+ * <p>
+ * Queries over at least the parallel threshold of positions are split over the
+ * columns and run on a {@link ForkJoinPool}. Every task writes its matches to
+ * its own part of the result array, and the parts are compacted when the
+ * tasks are joined. Samples are merged like in {@link BidSampleTask}.
+ */
+final class JointUtilityGrid {
+
+    static final int BLOCK_SIZE = 512;
+    static final int BUCKETS = 32;
+    /**
+     * Number of columns a parallel query task handles without splitting.
+     */
+    static final int BLOCKS_PER_TASK = 16;
+
+    private final BidSpaceIndex index;
+    private final IncrementalOpponentModel model;
+    private final boolean batched;
+    private final double[] opponentUtilities;
+    private final int[] cellPositions;
+    private final int[] cellStarts;
+    private final long[] blockVersions;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    /**
+     * @param index the bids to put in the grid
+     * @param model the opponent model of the domain of the index
+     */
+    JointUtilityGrid(BidSpaceIndex index, IncrementalOpponentModel model) {
+        this(index, model, false, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param index             the bids to put in the grid
+     * @param model             the opponent model of the domain of the index
+     * @param batched           if true, the columns are evaluated with a
+     *                          {@link BatchEvaluator}
+     * @param pool              the pool for parallel queries, or null to
+     *                          always query sequentially
+     * @param parallelThreshold the smallest number of positions that is
+     *                          queried in parallel
+     */
+    JointUtilityGrid(BidSpaceIndex index, IncrementalOpponentModel model, boolean batched, ForkJoinPool pool,
+                     int parallelThreshold) {
+        this.index = index;
+        this.model = model;
+        this.batched = batched;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        int blocks = (index.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.opponentUtilities = new double[index.size()];
+        this.cellPositions = new int[index.size()];
+        this.cellStarts = new int[blocks * (BUCKETS + 1)];
+        this.blockVersions = new long[blocks];
+        Arrays.fill(blockVersions, -1);
+    }
+
+    /**
+     * Finds the bids between two positions of the index with an opponent
+     * utility strictly between low and high.
+     * @param from   first position in the index
+     * @param to     position after the last one in the index
+     * @param low    lower bound of the opponent utility, exclusive
+     * @param high   upper bound of the opponent utility, exclusive
+     * @param result receives the positions found, must have room for to-from
+     *               positions
+     * @return the number of positions stored in result
+     * @throws IllegalStateException if the opponent model is not ready
+     */
+    int query(int from, int to, double low, double high, int[] result) {
+        if (from >= to || low >= high)
+            return 0;
+        long version = getVersion();
+        int firstBlock = from / BLOCK_SIZE;
+        int lastBlock = (to - 1) / BLOCK_SIZE + 1;
+        if (pool == null || to - from < parallelThreshold)
+            return query(firstBlock, lastBlock, from, to, low, high, version, result, 0, new int[BUCKETS]);
+        return pool.invoke(new QueryTask(firstBlock, lastBlock, from, to, low, high, version, result));
+    }
+
+    /**
+     * Picks a uniformly random bid among the bids that
+     * {@link #query(int, int, double, double, int[])} would find, without
+     * collecting them.
+     * @param from   first position in the index
+     * @param to     position after the last one in the index
+     * @param low    lower bound of the opponent utility, exclusive
+     * @param high   upper bound of the opponent utility, exclusive
+     * @param random the source of randomness
+     * @param budget the time budget. The columns are searched one by one
+     *               until it is exhausted, and then the choice among the
+     *               matches found so far is returned.
+     * @return the position of the chosen bid, or -1 if there is no such bid
+     * @throws IllegalStateException if the opponent model is not ready
+     */
+    int sample(int from, int to, double low, double high, SplittableRandom random, SearchBudget budget) {
+        if (from >= to || low >= high)
+            return -1;
+        long version = getVersion();
+        int firstBlock = from / BLOCK_SIZE;
+        int lastBlock = (to - 1) / BLOCK_SIZE + 1;
+        long sample;
+        if (pool == null || to - from < parallelThreshold)
+            sample = sample(firstBlock, lastBlock, from, to, low, high, version, random, budget, new int[BUCKETS]);
+        else
+            sample = pool.invoke(new SampleTask(firstBlock, lastBlock, from, to, low, high, version, random, budget));
+        return (int) sample;
+    }
+
+    /**
+     * Sequential sample of a range of columns.
+     * @return the number of matches in the upper 32 bits and the chosen
+     *         position, or -1, in the lower 32 bits
+     */
+    private long sample(int firstBlock, int lastBlock, int from, int to, double low, double high, long version,
+                        SplittableRandom random, SearchBudget budget, int[] bucketCounts) {
+        int count = 0;
+        int choice = -1;
+        int firstBucket = bucket(low);
+        int lastBucket = bucket(high);
+        for (int block = firstBlock; block < lastBlock && !budget.isExhausted(); block++) {
+            ensureBuilt(block, version, bucketCounts);
+            int cells = block * (BUCKETS + 1);
+            for (int n = cellStarts[cells + firstBucket]; n < cellStarts[cells + lastBucket + 1]; n++) {
+                int position = cellPositions[n];
+                double utility = opponentUtilities[position];
+                if (position >= from && position < to && utility > low && utility < high
+                        && random.nextInt(++count) == 0)
+                    choice = position;
+            }
+        }
+        return toSample(count, choice);
+    }
+
+    private static long toSample(int count, int position) {
+        return ((long) count << 32) | (position & 0xffffffffL);
+    }
+
+    /**
+     * Sequential query of a range of columns.
+     * @return the number of positions stored in result from offset on
+     */
+    private int query(int firstBlock, int lastBlock, int from, int to, double low, double high, long version,
+                      int[] result, int offset, int[] bucketCounts) {
+        int found = offset;
+        int firstBucket = bucket(low);
+        int lastBucket = bucket(high);
+        for (int block = firstBlock; block < lastBlock; block++) {
+            ensureBuilt(block, version, bucketCounts);
+            int cells = block * (BUCKETS + 1);
+            for (int n = cellStarts[cells + firstBucket]; n < cellStarts[cells + lastBucket + 1]; n++) {
+                int position = cellPositions[n];
+                double utility = opponentUtilities[position];
+                if (position >= from && position < to && utility > low && utility < high)
+                    result[found++] = position;
+            }
+        }
+        return found - offset;
+    }
+
+    /**
+     * @return the version of the model
+     * @throws IllegalStateException if the model is not ready
+     */
+    private long getVersion() {
+        if (!model.isReady())
+            throw new IllegalStateException("Opponent model is not initialised");
+        return model.getVersion();
+    }
+
+    private static int bucket(double utility) {
+        return Math.max(0, Math.min(BUCKETS - 1, (int) (utility * BUCKETS)));
+    }
+
+    /**
+     * Re-evaluates and re-buckets a column if the model changed since it was
+     * built.
+     */
+    private void ensureBuilt(int block, long version, int[] bucketCounts) {
+        if (blockVersions[block] == version)
+            return;
+
+        int start = block * BLOCK_SIZE;
+        int end = Math.min(index.size(), start + BLOCK_SIZE);
+        Arrays.fill(bucketCounts, 0);
+        evaluate(start, end);
+        for (int position = start; position < end; position++)
+            bucketCounts[bucket(opponentUtilities[position])]++;
+
+        int cells = block * (BUCKETS + 1);
+        int next = start;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            cellStarts[cells + bucket] = next;
+            next += bucketCounts[bucket];
+            bucketCounts[bucket] = cellStarts[cells + bucket];
+        }
+        cellStarts[cells + BUCKETS] = end;
+        for (int position = start; position < end; position++)
+            cellPositions[bucketCounts[bucket(opponentUtilities[position])]++] = position;
+
+        blockVersions[block] = version;
+    }
+
+    /**
+     * Puts the modelled opponent utilities of the positions of a column in
+     * {@link #opponentUtilities}.
+     */
+    private void evaluate(int start, int end) {
+        if (!batched) {
+            for (int position = start; position < end; position++)
+                opponentUtilities[position] = model.getUtility(index, position);
+            return;
+        }
+        // a column fits in one batch
+        BatchEvaluator batch = new BatchEvaluator(index.getEncoder().getIssueCount());
+        for (int position = start; position < end; position++)
+            batch.add(index, position);
+        batch.getUtilities(model, opponentUtilities, start);
+    }
+
+    /**
+     * Parallel query of a range of columns. The matches of the columns are
+     * stored from the result offset of the first position of the range.
+     */
+    private final class QueryTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstBlock, lastBlock, from, to;
+        private final double low, high;
+        private final long version;
+        private final int[] result;
+
+        QueryTask(int firstBlock, int lastBlock, int from, int to, double low, double high, long version,
+                  int[] result) {
+            this.firstBlock = firstBlock;
+            this.lastBlock = lastBlock;
+            this.from = from;
+            this.to = to;
+            this.low = low;
+            this.high = high;
+            this.version = version;
+            this.result = result;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (lastBlock - firstBlock <= BLOCKS_PER_TASK)
+                return query(firstBlock, lastBlock, from, to, low, high, version, result,
+                        offset(firstBlock), new int[BUCKETS]);
+
+            int middle = (firstBlock + lastBlock) >>> 1;
+            QueryTask right = new QueryTask(middle, lastBlock, from, to, low, high, version, result);
+            right.fork();
+            int leftFound = new QueryTask(firstBlock, middle, from, to, low, high, version, result).compute();
+            int rightFound = right.join();
+            System.arraycopy(result, offset(middle), result, offset(firstBlock) + leftFound, rightFound);
+            return leftFound + rightFound;
+        }
+
+        private int offset(int block) {
+            return Math.max(from, block * BLOCK_SIZE) - from;
+        }
+    }
+
+    /**
+     * Parallel sample of a range of columns.
+     */
+    private final class SampleTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstBlock, lastBlock, from, to;
+        private final double low, high;
+        private final long version;
+        private final SplittableRandom random;
+        private final SearchBudget budget;
+
+        SampleTask(int firstBlock, int lastBlock, int from, int to, double low, double high, long version,
+                   SplittableRandom random, SearchBudget budget) {
+            this.firstBlock = firstBlock;
+            this.lastBlock = lastBlock;
+            this.from = from;
+            this.to = to;
+            this.low = low;
+            this.high = high;
+            this.version = version;
+            this.random = random;
+            this.budget = budget;
+        }
+
+        @Override
+        protected Long compute() {
+            if (lastBlock - firstBlock <= BLOCKS_PER_TASK)
+                return sample(firstBlock, lastBlock, from, to, low, high, version, random, budget, new int[BUCKETS]);
+
+            int middle = (firstBlock + lastBlock) >>> 1;
+            SampleTask right = new SampleTask(middle, lastBlock, from, to, low, high, version, random.split(), budget);
+            right.fork();
+            long left = new SampleTask(firstBlock, middle, from, to, low, high, version, random, budget).compute();
+            long rightSample = right.join();
+            int leftCount = (int) (left >>> 32);
+            int count = leftCount + (int) (rightSample >>> 32);
+            if (count == 0)
+                return left;
+            return toSample(count, (int) (random.nextInt(count) < leftCount ? left : rightSample));
+        }
+    }
+}
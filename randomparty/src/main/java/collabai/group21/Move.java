@@ -0,0 +1,8 @@
+package collabai.group21;
+
+enum Move {
+    CONCESSION,
+    UNFORTUNATE,
+    SELFISH,
+    FORTUNATE
+}
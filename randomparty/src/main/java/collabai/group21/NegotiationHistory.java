@@ -0,0 +1,202 @@
+package collabai.group21;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import geniusweb.actions.PartyId;
+import geniusweb.issuevalue.Bid;
+
+/**
+ * The bids exchanged so far, stored in primitive arrays: every bid as its id
+ * in a {@link BidInterner}, next to our utility of it as a double and, for the
+ * opponents, the classified {@link Move} as a byte. Every opponent has its
+ * own track, so the bids of several opponents are never mixed. Tracks of
+ * different opponents can be added to from different threads.
+ * <p>
+ * Without a capacity the arrays grow with the session. With a capacity only
+ * the last bids of each side are kept in a ring buffer, while the counts keep
+ * covering the whole session. Bids are numbered from 0 in the order they were
+ * added; only the numbers from {@link Track#getFirst()} on can be read.
+ * <p>
+ * A track owns one reference in the interner to every id added to it, and
+ * releases it when the bid is dropped from the ring buffer, so the interner
+ * does not grow beyond the bids that are kept.
+ */
+final class NegotiationHistory {
+
+    private static final Move[] MOVES = Move.values();
+
+    private final BidInterner interner;
+    private final int capacity;
+    private final Track ourBids;
+    private final Map<PartyId, Track> opponentBids = new ConcurrentHashMap<>();
+
+    /**
+     * @param interner the interner of the domain of the negotiation
+     * @param capacity the number of bids to keep per side, or 0 or less to
+     *                 keep all of them
+     */
+    NegotiationHistory(BidInterner interner, int capacity) {
+        this.interner = interner;
+        this.capacity = capacity;
+        this.ourBids = new Track(capacity, false);
+    }
+
+    /**
+     * @param id      the id of the bid we sent, with a reference that is
+     *                handed to the history
+     * @param utility our utility of the bid
+     */
+    void addOurBid(int id, double utility) {
+        ourBids.add(id, utility, null);
+    }
+
+    /**
+     * @param party   the opponent that sent the bid
+     * @param id      the id of the bid the opponent sent, with a reference
+     *                that is handed to the history
+     * @param utility our utility of the bid
+     * @param move    the classification of the bid
+     */
+    void addOpponentBid(PartyId party, int id, double utility, Move move) {
+        getOpponentBids(party).add(id, utility, move);
+    }
+
+    Track getOurBids() {
+        return ourBids;
+    }
+
+    /**
+     * @param party an opponent
+     * @return the bids of the opponent, an empty track if it did not bid yet
+     */
+    Track getOpponentBids(PartyId party) {
+        return opponentBids.computeIfAbsent(party, key -> new Track(capacity, true));
+    }
+
+    /**
+     * Recomputes the stored utilities of the kept bids, for a changed profile.
+     * @param space the new compiled profile
+     */
+    void reevaluate(CompiledUtilitySpace space) {
+        ourBids.reevaluate(space);
+        for (Track track : opponentBids.values())
+            track.reevaluate(space);
+    }
+
+    /**
+     * The bids of one side.
+     */
+    final class Track {
+        private final int capacity;
+        private int[] ids;
+        private double[] utilities;
+        private byte[] moves;
+        private int size = 0;
+
+        private Track(int capacity, boolean withMoves) {
+            this.capacity = capacity;
+            int slots = (capacity > 0) ? capacity : 16;
+            this.ids = new int[slots];
+            this.utilities = new double[slots];
+            this.moves = withMoves ? new byte[slots] : null;
+        }
+
+        /**
+         * Adds a bid, releasing the id of the bid it replaces in the ring
+         * buffer.
+         * @param id      the id of the bid, with a reference that is handed to
+         *                the track
+         * @param utility our utility of the bid
+         * @param move    the classification of the bid, ignored for our own
+         *                bids
+         */
+        void add(int id, double utility, Move move) {
+            if (capacity <= 0 && size == utilities.length) {
+                ids = Arrays.copyOf(ids, 2 * ids.length);
+                utilities = Arrays.copyOf(utilities, 2 * utilities.length);
+                if (moves != null)
+                    moves = Arrays.copyOf(moves, 2 * moves.length);
+            }
+            int slot = slot(size);
+            if (capacity > 0 && size >= capacity)
+                interner.release(ids[slot]);
+            ids[slot] = id;
+            utilities[slot] = utility;
+            if (moves != null)
+                moves[slot] = (byte) move.ordinal();
+            size++;
+        }
+
+        private int slot(int number) {
+            return (capacity > 0) ? number % capacity : number;
+        }
+
+        private void check(int number) {
+            if (number < getFirst() || number >= size)
+                throw new IndexOutOfBoundsException("Bid " + number + " is not kept, only " + getFirst() + " to "
+                        + (size - 1));
+        }
+
+        private void reevaluate(CompiledUtilitySpace space) {
+            for (int number = getFirst(); number < size; number++) {
+                int slot = slot(number);
+                utilities[slot] = interner.getUtility(ids[slot], space);
+            }
+        }
+
+        /**
+         * @return the number of bids added, including those no longer kept
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the number of the oldest bid that is kept
+         */
+        int getFirst() {
+            return (capacity > 0) ? Math.max(0, size - capacity) : 0;
+        }
+
+        /**
+         * @param number the number of a kept bid
+         * @return the id of the bid in the interner
+         * @throws IndexOutOfBoundsException if the bid is not kept
+         */
+        int getId(int number) {
+            check(number);
+            return ids[slot(number)];
+        }
+
+        /**
+         * @param number the number of a kept bid
+         * @return the canonical instance of the bid
+         * @throws IndexOutOfBoundsException if the bid is not kept
+         */
+        Bid getBid(int number) {
+            return interner.getBid(getId(number));
+        }
+
+        /**
+         * @param number the number of a kept bid
+         * @return our utility of the bid
+         * @throws IndexOutOfBoundsException if the bid is not kept
+         */
+        double getUtility(int number) {
+            check(number);
+            return utilities[slot(number)];
+        }
+
+        /**
+         * @param number the number of a kept opponent bid
+         * @return the classification of the bid
+         * @throws IndexOutOfBoundsException if the bid is not kept
+         */
+        Move getMove(int number) {
+            check(number);
+            return MOVES[moves[slot(number)]];
+        }
+    }
+}
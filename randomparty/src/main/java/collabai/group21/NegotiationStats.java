@@ -0,0 +1,55 @@
+package collabai.group21;
+
+import java.util.DoubleSummaryStatistics;
+
+/**
+ * Running statistics over our utility of the bids exchanged so far. Every bid
+ * is added once, in the order it was made, and all statistics are then read
+ * in O(1). The sums are accumulated in the same order and with the same
+ * (compensated) summation as streaming over the full bid history, so the
+ * results are identical to recomputing them.
+ */
+final class NegotiationStats {
+
+    private final DoubleSummaryStatistics ourUtilities = new DoubleSummaryStatistics();
+    private int opponentBidCount = 0;
+    private double lastOpponentUtility;
+    private double sumOfOpponentDeltas = 0;
+
+    /**
+     * @param utility our utility of the bid we just sent
+     */
+    void addOurBid(double utility) {
+        ourUtilities.accept(utility);
+    }
+
+    /**
+     * @param utility our utility of the bid the opponent just sent
+     */
+    void addOpponentBid(double utility) {
+        if (opponentBidCount > 0)
+            sumOfOpponentDeltas += utility - lastOpponentUtility;
+        lastOpponentUtility = utility;
+        opponentBidCount++;
+    }
+
+    /**
+     * @return the average of our utility over our own bids, NaN if we did not
+     *         bid yet
+     */
+    double getOurAverageUtility() {
+        return ourUtilities.getCount() == 0 ? Double.NaN : ourUtilities.getAverage();
+    }
+
+    int getOpponentBidCount() {
+        return opponentBidCount;
+    }
+
+    /**
+     * @return the sum of the differences in our utility between each opponent
+     *         bid and the one before it
+     */
+    double getSumOfOpponentDeltas() {
+        return sumOfOpponentDeltas;
+    }
+}
@@ -0,0 +1,166 @@
+package collabai.group21;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import geniusweb.issuevalue.Bid;
+
+/**
+ * Everything the party learns about one other party: the frequency model of
+ * its preferences, its bids with their classified {@link Move}s, and the
+ * statistics over them. In multilateral protocols every party that offers
+ * gets its own instance, so the offers of different parties are never mixed
+ * into one model.
+ * <p>
+ * An instance is only updated by one thread at a time, but the instances of
+ * different parties can be updated at the same time.
+ */
+final class Opponent {
+
+    private final NegotiationHistory.Track bids;
+    private final IncrementalOpponentModel model = new IncrementalOpponentModel();
+    private final Map<Move, Integer> moveCounter = new EnumMap<>(Move.class);
+    private NegotiationStats stats = new NegotiationStats();
+    private double ourDelta = 0;
+    private BidSpaceIndex gridIndex;
+    private JointUtilityGrid grid;
+
+    /**
+     * @param bids the track in the history that receives the bids of the
+     *             party
+     */
+    Opponent(NegotiationHistory.Track bids) {
+        this.bids = bids;
+    }
+
+    /**
+     * Classifies a new bid of the party by the change in our utility and in
+     * its modelled utility, adds it to the history and the statistics, and
+     * counts it in the model. The first bid only initialises the model.
+     * @param interner the interner that holds the bid
+     * @param id       the id of the bid, with a reference that is handed to
+     *                 the history
+     * @param utility  our utility of the bid
+     * @param encoder  the encoder of our profile, to initialise the model
+     */
+    void receive(BidInterner interner, int id, double utility, BidEncoder encoder) {
+        double opponentsDelta = getUtility(interner, id);
+        if (bids.size() != 0)
+            opponentsDelta -= getUtility(interner, bids.getId(bids.size() - 1));
+        ourDelta = (bids.size() != 0) ? utility - bids.getUtility(bids.size() - 1) : 0.01;
+
+        Move move = classifyMove(ourDelta, opponentsDelta);
+        bids.add(id, utility, move);
+        stats.addOpponentBid(utility);
+        if (!model.isReady())
+            model.init(encoder);
+        else
+            model.update(interner, id);
+        moveCounter.put(move, moveCounter.getOrDefault(move, 1));
+    }
+
+    /**
+     * Rebuilds the statistics from the kept bids, after the history was
+     * re-evaluated for a changed profile.
+     */
+    void updateStats() {
+        NegotiationStats newStats = new NegotiationStats();
+        for (int n = bids.getFirst(); n < bids.size(); n++)
+            newStats.addOpponentBid(bids.getUtility(n));
+        stats = newStats;
+    }
+
+    /**
+     * @param bid a bid
+     * @return the modelled utility of the bid for the party, or -1 if the
+     *         model is not initialised yet
+     */
+    double getUtility(Bid bid) {
+        if (!model.isReady())
+            return -1;
+        return model.getUtility(bid);
+    }
+
+    /**
+     * Same as {@link #getUtility(Bid)} for an interned bid, without encoding
+     * it again.
+     */
+    double getUtility(BidInterner interner, int id) {
+        if (!model.isReady())
+            return -1;
+        return model.getUtility(interner, id);
+    }
+
+    /**
+     * @param index             the current index
+     * @param pool              the pool for parallel queries, or null
+     * @param parallelThreshold the smallest number of positions that is
+     *                          queried in parallel
+     * @param batched           if true, the utilities are evaluated in
+     *                          batches
+     * @return the grid of the index over this party's modelled utility,
+     *         created the first time it is needed for the index
+     */
+    JointUtilityGrid getGrid(BidSpaceIndex index, ForkJoinPool pool, int parallelThreshold, boolean batched) {
+        if (gridIndex != index) {
+            grid = new JointUtilityGrid(index, model, batched, pool, parallelThreshold);
+            gridIndex = index;
+        }
+        return grid;
+    }
+
+    IncrementalOpponentModel getModel() {
+        return model;
+    }
+
+    NegotiationHistory.Track getBids() {
+        return bids;
+    }
+
+    NegotiationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the change in our utility from the party's previous bid to its
+     *         last one
+     */
+    double getOurDelta() {
+        return ourDelta;
+    }
+
+    /**
+     * @return the counter of the move, 0 if the party never made it
+     */
+    int getMoveCount(Move move) {
+        return moveCounter.getOrDefault(move, 0);
+    }
+
+    /**
+     * @return the classification of the last bid of the party, SELFISH if it
+     *         did not bid yet
+     */
+    Move getLastMove() {
+        if (bids.size() == 0)
+            return Move.SELFISH;
+        return bids.getMove(bids.size() - 1);
+    }
+
+    /**
+     * Method to classify a move of the party.
+     * @param ourDelta       the change in our utility
+     * @param opponentsDelta the change in the party's modelled utility
+     * @return the move
+     */
+    private static Move classifyMove(double ourDelta, double opponentsDelta) {
+        if (ourDelta > 0 && opponentsDelta < 0)
+            return Move.CONCESSION;
+        else if (ourDelta < 0 && opponentsDelta < 0)
+            return Move.UNFORTUNATE;
+        else if (ourDelta < 0 && opponentsDelta > 0)
+            return Move.SELFISH;
+        else
+            return Move.FORTUNATE;
+    }
+}
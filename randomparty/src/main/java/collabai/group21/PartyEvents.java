@@ -0,0 +1,225 @@
+package collabai.group21;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder events of {@link Group21Party}. The events are only
+ * recorded when a recording enables them, for example with
+ * {@code -XX:StartFlightRecording}. Disabled events cost a check of
+ * {@code shouldCommit()} at most, and the values of an event are only
+ * computed after that check.
+ * <p>
+ * The event classes are only loaded when {@link #AVAILABLE} is true, so the
+ * party also runs on Java 8 runtimes without the flight recorder. Events are
+ * created by the methods of this class, which return null in that case. Code
+ * that records an event keeps it in a variable of its own class, which the
+ * verifier does not have to load.
+ */
+final class PartyEvents {
+
+    /**
+     * True if the runtime has the flight recorder API.
+     */
+    static final boolean AVAILABLE = isAvailable();
+
+    private PartyEvents() {
+    }
+
+    /**
+     * @return a started event, or null if the flight recorder is not
+     *         available
+     */
+    static InformHandled beginInform() {
+        if (!AVAILABLE)
+            return null;
+        InformHandled event = new InformHandled();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return a started event, or null if the flight recorder is not
+     *         available
+     */
+    static BidSearch beginBidSearch() {
+        if (!AVAILABLE)
+            return null;
+        BidSearch event = new BidSearch();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return a started event, or null if the flight recorder is not
+     *         available
+     */
+    static ModelUpdate beginModelUpdate() {
+        if (!AVAILABLE)
+            return null;
+        ModelUpdate event = new ModelUpdate();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return a started event, or null if the flight recorder is not
+     *         available
+     */
+    static ProfileRefresh beginProfileRefresh() {
+        if (!AVAILABLE)
+            return null;
+        ProfileRefresh event = new ProfileRefresh();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return a new event if it is going to be recorded, otherwise null
+     */
+    static Acceptance acceptance() {
+        if (!AVAILABLE)
+            return null;
+        Acceptance event = new Acceptance();
+        return event.shouldCommit() ? event : null;
+    }
+
+    /**
+     * @return a new event if it is going to be recorded, otherwise null
+     */
+    static ProfileIssue profileIssue() {
+        if (!AVAILABLE)
+            return null;
+        ProfileIssue event = new ProfileIssue();
+        return event.shouldCommit() ? event : null;
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PartyEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Name("collabai.group21.InformHandled")
+    @Label("Inform Handled")
+    @Description("The handling of an inform by the party")
+    @Category({ "Negotiation", "Group21Party" })
+    @StackTrace(false)
+    static final class InformHandled extends Event {
+        @Label("Inform")
+        String inform;
+
+        @Label("Round")
+        int round;
+    }
+
+    @Name("collabai.group21.BidSearch")
+    @Label("Bid Search")
+    @Description("The search for the next bid of the party")
+    @Category({ "Negotiation", "Group21Party" })
+    @StackTrace(false)
+    static final class BidSearch extends Event {
+        @Label("Round")
+        int round;
+
+        @Label("Search")
+        @Description("index, bounded or extended")
+        String search;
+
+        @Label("Candidates")
+        @Description("The number of bids in our utility window, or found in it if the domain is not indexed")
+        long candidates;
+
+        @Label("Our Goal")
+        double ourGoal;
+
+        @Label("Their Goal")
+        double theirGoal;
+
+        @Label("Truncated")
+        @Description("True if the search ran out of its time budget")
+        boolean truncated;
+    }
+
+    @Name("collabai.group21.Acceptance")
+    @Label("Acceptance Decision")
+    @Description("A decision on accepting the last bid of the opponent")
+    @Category({ "Negotiation", "Group21Party" })
+    @StackTrace(false)
+    static final class Acceptance extends Event {
+        @Label("Round")
+        int round;
+
+        @Label("Criterion")
+        @Description("ACNext or ACTime")
+        String criterion;
+
+        @Label("Before Bid")
+        @Description("True if decided before our next bid was searched for")
+        boolean beforeBid;
+
+        @Label("Utility")
+        @Description("Our utility of the opponent's bid")
+        double utility;
+
+        @Label("Threshold")
+        @Description("The lowest utility that is accepted")
+        double threshold;
+
+        @Label("Accepted")
+        boolean accepted;
+    }
+
+    @Name("collabai.group21.ModelUpdate")
+    @Label("Opponent Model Update")
+    @Description("The update of the model and history of an opponent with its new offers")
+    @Category({ "Negotiation", "Group21Party" })
+    @StackTrace(false)
+    static final class ModelUpdate extends Event {
+        @Label("Offers")
+        int offers;
+    }
+
+    @Name("collabai.group21.ProfileRefresh")
+    @Label("Profile Refresh")
+    @Description("The preparation of the state of a new version of the profile")
+    @Category({ "Negotiation", "Group21Party" })
+    @StackTrace(false)
+    static final class ProfileRefresh extends Event {
+        @Label("Profile")
+        String profile;
+
+        @Label("Indexed Bids")
+        @Description("The number of bids in the index, 0 if the domain is not indexed")
+        long bids;
+
+        @Label("Off Heap")
+        boolean offHeap;
+    }
+
+    @Name("collabai.group21.ProfileIssue")
+    @Label("Profile Issue")
+    @Description("The weight and value utilities of an issue of the profile")
+    @Category({ "Negotiation", "Group21Party" })
+    @StackTrace(false)
+    static final class ProfileIssue extends Event {
+        @Label("Profile")
+        String profile;
+
+        @Label("Issue")
+        String issue;
+
+        @Label("Weight")
+        double weight;
+
+        @Label("Utilities")
+        String utilities;
+    }
+}
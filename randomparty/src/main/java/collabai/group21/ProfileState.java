@@ -0,0 +1,65 @@
+package collabai.group21;
+
+import geniusweb.exampleparties.timedependentparty.ExtendedUtilSpace;
+import geniusweb.profile.utilityspace.LinearAdditive;
+
+/**
+ * Everything the party derives from one version of its profile. A state is
+ * built completely before it is used, so the party switches from one profile
+ * to the next in a single step.
+ */
+final class ProfileState {
+
+    private final LinearAdditive profile;
+    private final CompiledUtilitySpace utilities;
+    private final BidSpaceIndex bidSpace;
+    private final BranchAndBoundSearch boundedSearch;
+    private final ExtendedUtilSpace extendedUtilSpace;
+    private final double reservationUtility;
+
+    /**
+     * @param profile            the profile
+     * @param utilities          the compiled profile
+     * @param bidSpace           the index of the bids, or null if the domain
+     *                           is too large to index
+     * @param boundedSearch      the bid search to use if there is no index,
+     *                           or null
+     * @param extendedUtilSpace  the bid search to use if there is no index
+     *                           and no bounded search, otherwise null
+     * @param reservationUtility our utility of the reservation bid
+     */
+    ProfileState(LinearAdditive profile, CompiledUtilitySpace utilities, BidSpaceIndex bidSpace,
+                 BranchAndBoundSearch boundedSearch,
+                 ExtendedUtilSpace extendedUtilSpace, double reservationUtility) {
+        this.profile = profile;
+        this.utilities = utilities;
+        this.bidSpace = bidSpace;
+        this.boundedSearch = boundedSearch;
+        this.extendedUtilSpace = extendedUtilSpace;
+        this.reservationUtility = reservationUtility;
+    }
+
+    LinearAdditive getProfile() {
+        return profile;
+    }
+
+    CompiledUtilitySpace getUtilities() {
+        return utilities;
+    }
+
+    BidSpaceIndex getBidSpace() {
+        return bidSpace;
+    }
+
+    BranchAndBoundSearch getBoundedSearch() {
+        return boundedSearch;
+    }
+
+    ExtendedUtilSpace getExtendedUtilSpace() {
+        return extendedUtilSpace;
+    }
+
+    double getReservationUtility() {
+        return reservationUtility;
+    }
+}
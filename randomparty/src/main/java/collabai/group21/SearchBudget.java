@@ -0,0 +1,160 @@
+package collabai.group21;
+
+import java.util.Date;
+
+import geniusweb.progress.Progress;
+import geniusweb.progress.ProgressRounds;
+
+/**
+ * Time budget for the bid search of one turn. The search checks
+ * {@link #isExhausted()} between chunks of candidates and returns the best bid
+ * found so far once it is exhausted; {@link #isTruncated()} then tells that
+ * the result was cut short.
+ * <p>
+ * The budget of a turn is a fraction of the time left divided by the number
+ * of turns left. With a {@link ProgressRounds} deadline the turns left are the
+ * rounds left; with a time deadline they are estimated from the pace of our
+ * earlier turns, see {@link Timer}.
+ * <p>
+ * A budget can also be cancelled, which stops the search as soon as it next
+ * checks the budget. Cancelling does not mark the budget as truncated.
+ */
+final class SearchBudget {
+
+    /**
+     * A budget that is never exhausted.
+     */
+    static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE);
+
+    private final long startNanos = System.nanoTime();
+    private final long budgetNanos;
+    private volatile boolean truncated = false;
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param budgetNanos the time the search may take, in nanoseconds
+     */
+    SearchBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * @return true if the budget is used up or cancelled. The search must
+     *         stop and a used up budget is then marked as truncated.
+     */
+    boolean isExhausted() {
+        if (cancelled)
+            return true;
+        if (budgetNanos == Long.MAX_VALUE || System.nanoTime() - startNanos < budgetNanos)
+            return false;
+        truncated = true;
+        return true;
+    }
+
+    /**
+     * Makes the search that uses this budget stop. Must not be called on
+     * {@link #UNLIMITED}.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if a search stopped because the budget was used up
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * @return the time since the budget was created, in nanoseconds
+     */
+    long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Hands out the budgets of our turns and tracks our pace.
+     */
+    static final class Timer {
+
+        /**
+         * Turns assumed to be left under a time deadline, until the pace of
+         * our turns is known.
+         */
+        static final int DEFAULT_TURNS_LEFT = 20;
+
+        private final double fraction;
+        private int turns = 0;
+        private long firstTurnMillis;
+
+        /**
+         * @param fraction the part of the per-turn time that the search may
+         *                 use, or a value &le; 0 for unlimited searches
+         */
+        Timer(double fraction) {
+            this.fraction = fraction;
+        }
+
+        /**
+         * @param progress the current progress, may be null if unknown
+         * @return a new budget for the search of the turn that starts now
+         */
+        SearchBudget startTurn(Progress progress) {
+            countTurn();
+            return getBudget(progress, turns);
+        }
+
+        /**
+         * Counts a turn that starts now without handing out a budget, for a
+         * turn whose bid was already searched for by {@link #planTurn}.
+         */
+        void countTurn() {
+            if (turns++ == 0)
+                firstTurnMillis = System.currentTimeMillis();
+        }
+
+        /**
+         * A budget for searching ahead for our next turn, which is counted
+         * when it actually starts, so a search that is thrown away does not
+         * count as a turn.
+         * @param progress the current progress, may be null if unknown
+         * @return a new budget for a search for the next turn
+         */
+        SearchBudget planTurn(Progress progress) {
+            return getBudget(progress, turns + 1);
+        }
+
+        /**
+         * @return the number of turns started so far
+         */
+        int getTurns() {
+            return turns;
+        }
+
+        private SearchBudget getBudget(Progress progress, int turns) {
+            long now = System.currentTimeMillis();
+            Date termination = (progress == null) ? null : progress.getTerminationTime();
+            if (fraction <= 0 || termination == null)
+                return new SearchBudget(Long.MAX_VALUE);
+
+            long remaining = Math.max(0, termination.getTime() - now);
+            long turnsLeft;
+            if (progress instanceof ProgressRounds) {
+                ProgressRounds rounds = (ProgressRounds) progress;
+                if (rounds.getTotalRounds() == null || rounds.getCurrentRound() == null)
+                    return new SearchBudget(Long.MAX_VALUE);
+                turnsLeft = rounds.getTotalRounds() - rounds.getCurrentRound();
+            } else if (turns > 1 && now > firstTurnMillis) {
+                turnsLeft = remaining * (turns - 1) / (now - firstTurnMillis);
+            } else {
+                turnsLeft = DEFAULT_TURNS_LEFT;
+            }
+            return new SearchBudget((long) (fraction * remaining * 1000000 / Math.max(1, turnsLeft)));
+        }
+    }
+}
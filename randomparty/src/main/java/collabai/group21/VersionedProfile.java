@@ -0,0 +1,100 @@
+package collabai.group21;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+
+import geniusweb.profile.Profile;
+import geniusweb.profile.utilityspace.LinearAdditive;
+import geniusweb.profileconnection.ProfileInterface;
+import tudelft.utilities.logging.Reporter;
+
+/**
+ * Holds the {@link ProfileState} of the latest profile of a connection.
+ * <p>
+ * A connection hands out the same profile object until the profile changes,
+ * so a change is detected by identity first. Only a new object is compared
+ * with equals, against the profile that was last built. The state of the
+ * first profile is built by the caller; the states of later profiles are
+ * built on the executor, while the previous state stays in use, and replace
+ * it as a whole once they are complete.
+ */
+final class VersionedProfile {
+
+    private final ProfileInterface connection;
+    private final BiFunction<LinearAdditive, ProfileState, ProfileState> builder;
+    private final Executor executor;
+    private final Reporter reporter;
+    private volatile ProfileState current;
+    private volatile long version = 0;
+    private Profile lastSeen;
+    private Profile lastBuilt;
+    private long lastBuiltVersion = 0;
+
+    /**
+     * @param connection the connection to get the profile from
+     * @param builder    builds the state of a profile, given the state of the
+     *                   previous profile or null. Must be thread safe.
+     * @param executor   the executor to build the states of changed profiles
+     *                   on
+     * @param reporter   receives failures of builds on the executor
+     */
+    VersionedProfile(ProfileInterface connection, BiFunction<LinearAdditive, ProfileState, ProfileState> builder,
+                     Executor executor, Reporter reporter) {
+        this.connection = connection;
+        this.builder = builder;
+        this.executor = executor;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Checks the connection for a new profile and returns the latest complete
+     * state.
+     * @return the state of the latest profile, or of the previous one while
+     *         the state of a new profile is being built
+     * @throws IOException if the profile can not be read
+     */
+    ProfileState get() throws IOException {
+        Profile profile = connection.getProfile();
+        if (current == null) {
+            lastSeen = lastBuilt = profile;
+            current = builder.apply((LinearAdditive) profile, null);
+            version = lastBuiltVersion = 1;
+            return current;
+        }
+        if (profile == lastSeen)
+            return current;
+
+        lastSeen = profile;
+        if (!profile.equals(lastBuilt)) {
+            lastBuilt = profile;
+            long newVersion = ++lastBuiltVersion;
+            executor.execute(() -> build((LinearAdditive) profile, newVersion));
+        }
+        return current;
+    }
+
+    /**
+     * @return the version of the state returned by {@link #get()}, 1 for the
+     *         first profile
+     */
+    long getVersion() {
+        return version;
+    }
+
+    private void build(LinearAdditive profile, long newVersion) {
+        try {
+            ProfileState state = builder.apply(profile, current);
+            synchronized (this) {
+                // an older build that finishes late must not replace a newer one
+                if (newVersion > version) {
+                    current = state;
+                    version = newVersion;
+                }
+            }
+        } catch (RuntimeException e) {
+            reporter.log(Level.WARNING, "Failed to prepare profile version " + newVersion, e);
+        }
+    }
+}
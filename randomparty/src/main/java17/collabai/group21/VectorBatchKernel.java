@@ -0,0 +1,44 @@
+package collabai.group21;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link BatchKernel#VECTOR} kernel. It gathers the table entries of as
+ * many bids as fit in the preferred vector width, adds them to the results
+ * lane by lane, and handles the bids beyond the last full vector with the
+ * plain loop. The table entries of our profile are already weighted, so
+ * there is nothing to multiply: every lane only adds, in the same order as
+ * the scalar loop.
+ * <p>
+ * Only loaded by {@link BatchKernel}, after checking that the runtime has
+ * the jdk.incubator.vector module.
+ */
+final class VectorBatchKernel extends BatchKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    void add(double[] table, int[] column, double[] result, int offset, int size) {
+        int n = 0;
+        for (int bound = DOUBLES.loopBound(size); n < bound; n += DOUBLES.length())
+            DoubleVector.fromArray(DOUBLES, result, offset + n)
+                    .add(DoubleVector.fromArray(DOUBLES, table, 0, column, n))
+                    .intoArray(result, offset + n);
+        for (; n < size; n++)
+            result[offset + n] += table[column[n]];
+    }
+
+    @Override
+    void add(int[] table, int[] column, int[] result, int size) {
+        int n = 0;
+        for (int bound = INTS.loopBound(size); n < bound; n += INTS.length())
+            IntVector.fromArray(INTS, result, n)
+                    .add(IntVector.fromArray(INTS, table, 0, column, n))
+                    .intoArray(result, n);
+        for (; n < size; n++)
+            result[n] += table[column[n]];
+    }
+}
@@ -0,0 +1,70 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeNotNull;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchEvaluatorTest {
+
+    private final CompiledUtilitySpace space = new CompiledUtilitySpace(TestProfiles.random(5, 6, 3), false);
+    private final BidSpaceIndex index = BidSpaceIndex.create(space);
+    private final IncrementalOpponentModel model = new IncrementalOpponentModel();
+    private final BatchEvaluator batch = new BatchEvaluator(5);
+
+    @Before
+    public void before() {
+        model.init(index.getEncoder());
+        Random random = new Random(4);
+        for (int n = 0; n < 30; n++)
+            model.update(index.getBid(random.nextInt(index.size())));
+    }
+
+    @Test
+    public void testSameAsScalar() {
+        double[] ours = new double[index.size()];
+        double[] theirs = new double[index.size()];
+        for (int start = 0; start < index.size(); start += BatchEvaluator.BATCH_SIZE) {
+            batch.clear();
+            for (int position = start; position < index.size() && !batch.isFull(); position++)
+                batch.add(index, position);
+            batch.getUtilities(space, ours, start);
+            batch.getUtilities(model, theirs, start);
+        }
+        for (int position = 0; position < index.size(); position++) {
+            assertEquals(index.getUtility(position), ours[position], 0);
+            assertEquals(model.getUtility(index, position), theirs[position], 0);
+        }
+    }
+
+    @Test
+    public void testVectorSameAsScalar() {
+        // only runs with --add-modules jdk.incubator.vector on Java 17 or later
+        assumeNotNull(BatchKernel.VECTOR);
+        BatchEvaluator scalar = new BatchEvaluator(5, BatchKernel.SCALAR);
+        BatchEvaluator vector = new BatchEvaluator(5, BatchKernel.VECTOR);
+        Random random = new Random(5);
+        // sizes that are not a multiple of the vector width leave a tail
+        for (int size : new int[] { 1, 3, 7, 8, 13, 64, BatchEvaluator.BATCH_SIZE - 1, BatchEvaluator.BATCH_SIZE }) {
+            scalar.clear();
+            vector.clear();
+            for (int n = 0; n < size; n++) {
+                int position = random.nextInt(index.size());
+                scalar.add(index, position);
+                vector.add(index, position);
+            }
+            double[] expected = new double[size + 2];
+            double[] actual = new double[size + 2];
+            scalar.getUtilities(space, expected, 2);
+            vector.getUtilities(space, actual, 2);
+            assertArrayEquals(expected, actual, 0);
+            scalar.getUtilities(model, expected, 1);
+            vector.getUtilities(model, actual, 1);
+            assertArrayEquals(expected, actual, 0);
+        }
+    }
+}
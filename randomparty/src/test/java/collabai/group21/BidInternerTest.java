@@ -0,0 +1,122 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import geniusweb.issuevalue.Bid;
+import geniusweb.issuevalue.DiscreteValue;
+import geniusweb.issuevalue.Value;
+
+public class BidInternerTest {
+
+    private final CompiledUtilitySpace space = new CompiledUtilitySpace(TestProfiles.random(4, 6, 5), false);
+    private final BidSpaceIndex index = BidSpaceIndex.create(space);
+    private final BidInterner interner = new BidInterner(space.getEncoder());
+
+    @Test
+    public void testEqualBidsShareId() {
+        for (int n = 0; n < index.size(); n++)
+            assertEquals(n, interner.intern(index.getBid(n)));
+        for (int n = 0; n < index.size(); n++) {
+            Bid copy = index.getBid(n);
+            assertEquals(n, interner.intern(copy));
+            assertSame(interner.getBid(n), interner.getBid(interner.intern(copy)));
+        }
+        assertEquals(index.size(), interner.size());
+    }
+
+    @Test
+    public void testCanonicalIsFirstInstance() {
+        Bid first = index.getBid(7);
+        int id = interner.intern(first);
+        interner.intern(index.getBid(7));
+        assertSame(first, interner.getBid(id));
+    }
+
+    @Test
+    public void testValueIndices() {
+        int id = interner.intern(index.getBid(42));
+        for (int i = 0; i < 4; i++)
+            assertEquals(index.getValueIndex(42, i), interner.getValueIndex(id, i));
+        assertEquals(index.getUtility(42), interner.getUtility(id, space), 0);
+    }
+
+    @Test
+    public void testPartialBids() {
+        Bid partial = new Bid(Collections.singletonMap("issue1", new DiscreteValue("value2")));
+        int id = interner.intern(partial);
+        assertEquals(id, interner.intern(new Bid(Collections.singletonMap("issue1", new DiscreteValue("value2")))));
+        assertEquals(-1, interner.getValueIndex(id, 0));
+        assertEquals(2, interner.getValueIndex(id, 1));
+        assertEquals(space.getUtility(partial), interner.getUtility(id, space), 0);
+
+        Map<String, Value> values = new HashMap<>(index.getBid(0).getIssueValues());
+        values.put("issue0", new DiscreteValue("unknown"));
+        assertNotEquals(id, interner.intern(new Bid(values)));
+    }
+
+    @Test
+    public void testReleasedIdsReused() {
+        for (int n = 0; n < index.size(); n++)
+            interner.intern(index.getBid(n));
+        SplittableRandom random = new SplittableRandom(1);
+        boolean[] released = new boolean[index.size()];
+        for (int n = 0; n < index.size(); n++) {
+            if (random.nextBoolean()) {
+                interner.release(n);
+                released[n] = true;
+                assertNull(interner.getBid(n));
+            }
+        }
+        for (int n = 0; n < index.size(); n++)
+            if (!released[n])
+                assertEquals(n, interner.intern(index.getBid(n)));
+
+        for (int n = 0; n < index.size(); n++) {
+            if (released[n]) {
+                int id = interner.intern(index.getBid(n));
+                assertTrue(released[id]);
+                assertEquals(index.getBid(n), interner.getBid(id));
+                for (int i = 0; i < 4; i++)
+                    assertEquals(index.getValueIndex(n, i), interner.getValueIndex(id, i));
+            }
+        }
+        assertEquals(index.size(), interner.size());
+    }
+
+    @Test
+    public void testReferencesCounted() {
+        Bid partial = new Bid(Collections.singletonMap("issue1", new DiscreteValue("value2")));
+        int id = interner.intern(index.getBid(5));
+        int partialId = interner.intern(partial);
+        interner.retain(id);
+        interner.intern(partial);
+        interner.release(id);
+        interner.release(partialId);
+        assertEquals(2, interner.size());
+        interner.release(id);
+        interner.release(partialId);
+        assertEquals(0, interner.size());
+
+        assertTrue(interner.intern(index.getBid(9)) < 2);
+        int other = interner.intern(new Bid(Collections.singletonMap("issue0", new DiscreteValue("value1"))));
+        assertTrue(other < 2);
+        assertEquals(-1, interner.getValueIndex(other, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReleaseUnreferenced() {
+        interner.release(interner.intern(index.getBid(3)));
+        interner.release(0);
+    }
+}
@@ -0,0 +1,31 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+
+public class BidPlanTest {
+
+    private final LinearAdditiveUtilitySpace profile = TestProfiles.random(3, 4, 1);
+    private final BidPlan plan = new BidPlan(null, BigDecimal.ONE, BigDecimal.ZERO, 5, profile);
+
+    @Test
+    public void testSameState() {
+        assertTrue(plan.isFor(5, profile));
+    }
+
+    @Test
+    public void testOtherRound() {
+        assertFalse(plan.isFor(6, profile));
+    }
+
+    @Test
+    public void testOtherProfile() {
+        assertFalse(plan.isFor(5, TestProfiles.random(3, 4, 1)));
+    }
+}
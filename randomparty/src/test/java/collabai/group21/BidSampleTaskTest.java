@@ -0,0 +1,55 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import geniusweb.bidspace.AllBidsList;
+import geniusweb.issuevalue.Bid;
+import geniusweb.issuevalue.DiscreteValue;
+
+public class BidSampleTaskTest {
+
+    private final AllBidsList bids = new AllBidsList(TestProfiles.random(4, 9, 2).getDomain());
+    private final Predicate<Bid> filter = bid -> bid.getValue("issue0").equals(new DiscreteValue("value3"));
+
+    @Test
+    public void testSequential() {
+        BidSampleTask.Sample sample = BidSampleTask.sample(bids, 0, bids.size().longValue(), filter,
+                new SplittableRandom(1), SearchBudget.UNLIMITED);
+        assertEquals(729, sample.count);
+        assertTrue(filter.test(sample.bid));
+    }
+
+    @Test
+    public void testParallel() {
+        BidSampleTask.Sample sample = ForkJoinPool.commonPool().invoke(
+                new BidSampleTask(bids, 0, bids.size().longValue(), filter, new SplittableRandom(1),
+                        SearchBudget.UNLIMITED));
+        assertEquals(729, sample.count);
+        assertTrue(filter.test(sample.bid));
+    }
+
+    @Test
+    public void testNoMatch() {
+        BidSampleTask.Sample sample = BidSampleTask.sample(bids, 0, bids.size().longValue(), bid -> false,
+                new SplittableRandom(1), SearchBudget.UNLIMITED);
+        assertEquals(0, sample.count);
+        assertNull(sample.bid);
+    }
+
+    @Test
+    public void testExhaustedBudget() {
+        SearchBudget budget = new SearchBudget(0);
+        BidSampleTask.Sample sample = BidSampleTask.sample(bids, 0, bids.size().longValue(), filter,
+                new SplittableRandom(1), budget);
+        assertEquals(0, sample.count);
+        assertTrue(budget.isTruncated());
+    }
+}
@@ -0,0 +1,101 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BidSpaceCacheTest {
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private BidSpaceIndex build(CompiledUtilitySpace space) {
+        builds.incrementAndGet();
+        return BidSpaceIndex.create(space);
+    }
+
+    private static CompiledUtilitySpace space(long seed) {
+        return new CompiledUtilitySpace(TestProfiles.random(3, 5, seed), false);
+    }
+
+    @Test
+    public void testEqualProfilesShareIndex() {
+        BidSpaceCache cache = new BidSpaceCache(1000);
+        BidSpaceIndex index = cache.get(space(1), false, this::build);
+        assertSame(index, cache.get(space(1), false, this::build));
+        assertEquals(1, builds.get());
+        assertEquals(125, cache.getBids());
+    }
+
+    @Test
+    public void testStorageKeptApart() {
+        BidSpaceCache cache = new BidSpaceCache(1000);
+        BidSpaceIndex onHeap = cache.get(space(1), false, this::build);
+        BidSpaceIndex offHeap = cache.get(space(1), true, BidSpaceIndex::createOffHeap);
+        assertFalse(onHeap.isOffHeap());
+        assertTrue(offHeap.isOffHeap());
+        assertSame(offHeap, cache.get(space(1), true, this::build));
+        assertSame(onHeap, cache.get(space(1), false, BidSpaceIndex::createOffHeap));
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDropped() {
+        BidSpaceCache cache = new BidSpaceCache(250);
+        BidSpaceIndex first = cache.get(space(1), false, this::build);
+        cache.get(space(2), false, this::build);
+        cache.get(space(1), false, this::build);
+        cache.get(space(3), false, this::build);
+
+        assertEquals(2, cache.size());
+        assertEquals(250, cache.getBids());
+        assertSame(first, cache.get(space(1), false, this::build));
+        cache.get(space(2), false, this::build);
+        assertEquals(4, builds.get());
+    }
+
+    @Test
+    public void testTooLargeNotKept() {
+        BidSpaceCache cache = new BidSpaceCache(100);
+        BidSpaceIndex index = cache.get(space(1), false, this::build);
+        assertNotSame(index, cache.get(space(1), false, this::build));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBids());
+    }
+
+    @Test
+    public void testNullNotKept() {
+        BidSpaceCache cache = new BidSpaceCache(1000);
+        assertNull(cache.get(space(1), false, space -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentRequestsBuildOnce() throws Exception {
+        BidSpaceCache cache = new BidSpaceCache(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<BidSpaceIndex>> requests = new ArrayList<>();
+            for (int n = 0; n < 8; n++)
+                requests.add(() -> cache.get(space(1), false, this::build));
+            List<Future<BidSpaceIndex>> results = executor.invokeAll(requests);
+            for (Future<BidSpaceIndex> result : results)
+                assertSame(results.get(0).get(), result.get());
+            assertEquals(1, builds.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BidSpaceIndexFileTest {
+
+    private final CompiledUtilitySpace space = new CompiledUtilitySpace(TestProfiles.random(4, 6, 3), false);
+    private Path directory;
+
+    @Before
+    public void before() throws IOException {
+        directory = Files.createTempDirectory("indexes");
+    }
+
+    @After
+    public void after() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        BidSpaceIndex index = BidSpaceIndex.create(space);
+        BidSpaceIndexFile.store(directory, space, index);
+        BidSpaceIndex loaded = BidSpaceIndexFile.load(directory, space);
+
+        assertEquals(index.size(), loaded.size());
+        assertEquals(index.getTolerance(), loaded.getTolerance(), 0);
+        for (int position = 0; position < index.size(); position++) {
+            assertEquals(index.getUtility(position), loaded.getUtility(position), 0);
+            assertEquals(index.getBid(position), loaded.getBid(position));
+        }
+    }
+
+    @Test
+    public void testLoadOffHeap() throws IOException {
+        BidSpaceIndex index = BidSpaceIndex.create(space);
+        BidSpaceIndexFile.store(directory, space, index);
+        BidSpaceIndex loaded = BidSpaceIndexFile.load(directory, space, true);
+        assertTrue(loaded.isOffHeap());
+        BidSpaceIndexTest.assertSameIndex(index, loaded);
+    }
+
+    @Test
+    public void testWideDomainOffHeap() throws IOException {
+        CompiledUtilitySpace wide = new CompiledUtilitySpace(TestProfiles.random(2, 300, 8), false);
+        BidSpaceIndex index = BidSpaceIndex.createOffHeap(wide);
+        BidSpaceIndexFile.store(directory, wide, index);
+        BidSpaceIndexTest.assertSameIndex(index, BidSpaceIndexFile.load(directory, wide, true));
+        BidSpaceIndexTest.assertSameIndex(index, BidSpaceIndexFile.load(directory, wide, false));
+    }
+
+    @Test
+    public void testMissing() throws IOException {
+        assertNull(BidSpaceIndexFile.load(directory, space));
+    }
+
+    @Test
+    public void testFileNameDependsOnProfile() {
+        assertEquals(BidSpaceIndexFile.getFileName(space),
+                BidSpaceIndexFile.getFileName(new CompiledUtilitySpace(TestProfiles.random(4, 6, 3), false)));
+        assertNotEquals(BidSpaceIndexFile.getFileName(space),
+                BidSpaceIndexFile.getFileName(new CompiledUtilitySpace(TestProfiles.random(4, 6, 4), false)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        BidSpaceIndexFile.store(directory, space, BidSpaceIndex.create(space));
+        Path file = directory.resolve(BidSpaceIndexFile.getFileName(space));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        BidSpaceIndexFile.load(directory, space);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedOffHeap() throws IOException {
+        BidSpaceIndexFile.store(directory, space, BidSpaceIndex.create(space));
+        Path file = directory.resolve(BidSpaceIndexFile.getFileName(space));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        BidSpaceIndexFile.load(directory, space, true);
+    }
+
+    @Test
+    public void testTooLargeForHeap() throws IOException {
+        // a header of an index with more bids than the heap index takes, without the bids
+        CompiledUtilitySpace large = new CompiledUtilitySpace(TestProfiles.random(8, 8, 3), false);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x47323149);
+            out.writeInt(1);
+            out.writeInt(large.getEncoder().getSpaceSize().intValue());
+            out.writeInt(8);
+            out.writeDouble(0);
+            out.writeByte(1);
+        }
+        Files.write(directory.resolve(BidSpaceIndexFile.getFileName(large)), bytes.toByteArray());
+        for (boolean offHeap : new boolean[] { false, true }) {
+            try {
+                BidSpaceIndexFile.load(directory, large, offHeap);
+                fail("loaded an index without bids");
+            } catch (IOException e) {
+                // rebuilt by the party
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import geniusweb.exampleparties.timedependentparty.ExtendedUtilSpace;
+import geniusweb.issuevalue.Bid;
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+
+public class BidSpaceIndexTest {
+
+    private LinearAdditiveUtilitySpace profile;
+    private BidSpaceIndex index;
+
+    @Before
+    public void before() {
+        profile = TestProfiles.random(4, 5, 42);
+        index = BidSpaceIndex.create(new CompiledUtilitySpace(profile, false));
+    }
+
+    @Test
+    public void testContainsAllBidsOnce() {
+        assertEquals(625, index.size());
+        Set<Bid> bids = new HashSet<>();
+        for (int position = 0; position < index.size(); position++)
+            bids.add(index.getBid(position));
+        assertEquals(625, bids.size());
+    }
+
+    @Test
+    public void testSortedWithProfileUtilities() {
+        for (int position = 0; position < index.size(); position++) {
+            if (position > 0)
+                assertTrue(index.getUtility(position - 1) <= index.getUtility(position));
+            assertEquals(profile.getUtility(index.getBid(position)).doubleValue(), index.getUtility(position), 1e-9);
+        }
+    }
+
+    @Test
+    public void testWindowMatchesExtendedUtilSpace() {
+        ExtendedUtilSpace extended = new ExtendedUtilSpace(profile);
+        // goals are off the 4 decimal grid of the profile utilities, so no bid is on a window edge
+        for (double goal = 0.31234567; goal < 0.9; goal += 0.05) {
+            Set<Bid> expected = new HashSet<>();
+            for (Bid bid : extended.getBids(BigDecimal.valueOf(goal)))
+                expected.add(bid);
+
+            Set<Bid> actual = new HashSet<>();
+            int to = index.upperBound(goal);
+            for (int position = index.lowerBound(goal - index.getTolerance()); position < to; position++)
+                actual.add(index.getBid(position));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testBounds() {
+        assertEquals(0, index.lowerBound(-1));
+        assertEquals(index.size(), index.upperBound(2));
+        assertEquals(index.size(), index.lowerBound(index.getMax() + 1e-9));
+        assertEquals(index.size() - 1, index.lowerBound(index.getMax()) + countEqual(index.getMax()) - 1);
+    }
+
+    @Test
+    public void testOffHeapSameAsHeap() {
+        assertSameIndex(index, BidSpaceIndex.createOffHeap(new CompiledUtilitySpace(profile, false)));
+        CompiledUtilitySpace wide = new CompiledUtilitySpace(TestProfiles.random(2, 300, 8), false);
+        BidSpaceIndex offHeap = BidSpaceIndex.createOffHeap(wide);
+        assertTrue(offHeap.isOffHeap());
+        assertSameIndex(BidSpaceIndex.create(wide), offHeap);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLargeDomain() {
+        BidSpaceIndex.create(new CompiledUtilitySpace(TestProfiles.random(12, 5, 1), false));
+    }
+
+    static void assertSameIndex(BidSpaceIndex expected, BidSpaceIndex actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getTolerance(), actual.getTolerance(), 0);
+        int issueCount = expected.getEncoder().getIssueCount();
+        for (int position = 0; position < expected.size(); position++) {
+            assertEquals(expected.getUtility(position), actual.getUtility(position), 0);
+            for (int i = 0; i < issueCount; i++)
+                assertEquals(expected.getValueIndex(position, i), actual.getValueIndex(position, i));
+        }
+        assertEquals(expected.getBid(expected.size() - 1), actual.getBid(actual.size() - 1));
+        assertEquals(expected.lowerBound(0.5), actual.lowerBound(0.5));
+        assertEquals(expected.upperBound(0.5), actual.upperBound(0.5));
+    }
+
+    private int countEqual(double utility) {
+        return index.upperBound(utility) - index.lowerBound(utility);
+    }
+}
@@ -0,0 +1,130 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import geniusweb.issuevalue.Bid;
+
+public class BranchAndBoundSearchTest {
+
+    private final CompiledUtilitySpace space = new CompiledUtilitySpace(TestProfiles.random(4, 5, 42), false);
+    private final BidSpaceIndex index = BidSpaceIndex.create(space);
+    private final BranchAndBoundSearch search = new BranchAndBoundSearch(space);
+    private final BidEncoder encoder = space.getEncoder();
+
+    private IncrementalOpponentModel model() {
+        IncrementalOpponentModel model = new IncrementalOpponentModel();
+        model.init(encoder);
+        CompiledUtilitySpace other = new CompiledUtilitySpace(TestProfiles.random(4, 5, 43), false);
+        BidSpaceIndex theirs = BidSpaceIndex.create(other);
+        for (int n = 0; n < 30; n++)
+            model.update(theirs.getBid(theirs.size() - 1 - n));
+        return model;
+    }
+
+    private Set<Bid> decode(List<int[]> found) {
+        Set<Bid> bids = new HashSet<>();
+        for (int[] codes : found)
+            bids.add(encoder.decode(codes, 0));
+        return bids;
+    }
+
+    @Test
+    public void testFindsOurWindow() {
+        double max = 0.7;
+        double min = max - search.getTolerance();
+        Set<Bid> expected = new HashSet<>();
+        for (int position = index.lowerBound(min); position < index.upperBound(max); position++)
+            expected.add(index.getBid(position));
+
+        List<int[]> found = search.search(min, max, null, 0, 0, Integer.MAX_VALUE, new SplittableRandom(1),
+                SearchBudget.UNLIMITED);
+        assertEquals(expected.size(), found.size());
+        assertEquals(expected, decode(found));
+    }
+
+    @Test
+    public void testFindsBothWindows() {
+        IncrementalOpponentModel model = model();
+        double min = 0.5;
+        double max = 0.8;
+        double theirMin = 0.3;
+        double theirMax = 0.6;
+        Set<Bid> expected = new HashSet<>();
+        for (int position = index.lowerBound(min); position < index.upperBound(max); position++) {
+            double utility = model.getUtility(index, position);
+            if (utility > theirMin && utility < theirMax)
+                expected.add(index.getBid(position));
+        }
+        assertTrue(!expected.isEmpty());
+
+        List<int[]> found = search.search(min, max, model, theirMin, theirMax, Integer.MAX_VALUE,
+                new SplittableRandom(2), SearchBudget.UNLIMITED);
+        assertEquals(expected, decode(found));
+    }
+
+    @Test
+    public void testStopsAfterHits() {
+        List<int[]> found = search.search(0, 1, null, 0, 0, 5, new SplittableRandom(3), SearchBudget.UNLIMITED);
+        assertEquals(5, found.size());
+        assertEquals(5, decode(found).size());
+    }
+
+    @Test
+    public void testHitsSpread() {
+        for (int seed = 0; seed < 10; seed++) {
+            List<int[]> found = search.search(0, 1, null, 0, 0, 25, new SplittableRandom(seed),
+                    SearchBudget.UNLIMITED);
+            assertEquals(25, found.size());
+            Set<Integer> prefixes = new HashSet<>();
+            for (int[] codes : found)
+                prefixes.add(5 * codes[0] + codes[1]);
+            assertEquals(25, prefixes.size());
+        }
+    }
+
+    @Test
+    public void testFillsFromFewValues() {
+        // the best bids share few values of the first issues, so most values leave their share
+        int top = 40;
+        double min = index.getUtility(index.size() - top);
+        for (int seed = 0; seed < 10; seed++) {
+            List<int[]> found = search.search(min, search.getMax(), null, 0, 0, top - 5, new SplittableRandom(seed),
+                    SearchBudget.UNLIMITED);
+            assertEquals(top - 5, found.size());
+            assertEquals(top - 5, decode(found).size());
+            for (Bid bid : decode(found))
+                assertTrue(space.getUtility(bid) >= min);
+        }
+    }
+
+    @Test
+    public void testMax() {
+        assertEquals(index.getMax(), search.getMax(), 0);
+        double max = search.getMax();
+        List<int[]> found = search.search(max, max, null, 0, 0, 1, new SplittableRandom(4), SearchBudget.UNLIMITED);
+        assertEquals(1, found.size());
+        assertEquals(index.getBid(index.size() - 1), encoder.decode(found.get(0), 0));
+    }
+
+    @Test
+    public void testEmptyWindow() {
+        assertTrue(search.search(search.getMax() + 0.01, 2, null, 0, 0, 1, new SplittableRandom(5),
+                SearchBudget.UNLIMITED).isEmpty());
+    }
+
+    @Test
+    public void testCancelled() {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE - 1);
+        budget.cancel();
+        List<int[]> found = search.search(0, 1, null, 0, 0, Integer.MAX_VALUE, new SplittableRandom(6), budget);
+        assertTrue(found.size() < BranchAndBoundSearch.CHECK_INTERVAL);
+    }
+}
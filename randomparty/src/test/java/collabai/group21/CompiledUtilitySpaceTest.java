@@ -0,0 +1,50 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import geniusweb.bidspace.AllBidsList;
+import geniusweb.issuevalue.Bid;
+import geniusweb.issuevalue.DiscreteValue;
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+
+public class CompiledUtilitySpaceTest {
+
+    private LinearAdditiveUtilitySpace profile;
+    private CompiledUtilitySpace compiled;
+
+    @Before
+    public void before() {
+        profile = TestProfiles.random(5, 4, 3);
+        compiled = new CompiledUtilitySpace(profile, true);
+    }
+
+    @Test
+    public void testSameAsProfile() {
+        for (Bid bid : new AllBidsList(profile.getDomain()))
+            assertEquals(profile.getUtility(bid).doubleValue(), compiled.getUtility(bid), CompiledUtilitySpace.CHECK_EPSILON);
+    }
+
+    @Test
+    public void testEncodedSameAsBid() {
+        BidEncoder encoder = compiled.getEncoder();
+        for (Bid bid : new AllBidsList(profile.getDomain()))
+            assertEquals(compiled.getUtility(bid), compiled.getUtility(encoder.encode(bid), 0), 0);
+    }
+
+    @Test
+    public void testPartialBid() {
+        Bid bid = new Bid(Collections.singletonMap("issue2", new DiscreteValue("value1")));
+        assertEquals(profile.getUtility(bid).doubleValue(), compiled.getUtility(bid), CompiledUtilitySpace.CHECK_EPSILON);
+    }
+
+    @Test
+    public void testUnknownValue() {
+        Bid bid = new Bid(Collections.singletonMap("issue1", new DiscreteValue("unknown")));
+        assertEquals(0, compiled.getUtility(bid), 0);
+    }
+}
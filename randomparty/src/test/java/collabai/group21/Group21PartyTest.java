@@ -0,0 +1,214 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import geniusweb.actions.Accept;
+import geniusweb.actions.Action;
+import geniusweb.actions.ActionWithBid;
+import geniusweb.actions.Offer;
+import geniusweb.actions.PartyId;
+import geniusweb.actions.Votes;
+import geniusweb.connection.ConnectionEnd;
+import geniusweb.inform.ActionDone;
+import geniusweb.inform.Inform;
+import geniusweb.inform.Settings;
+import geniusweb.inform.Voting;
+import geniusweb.inform.YourTurn;
+import geniusweb.issuevalue.Bid;
+import geniusweb.profile.Profile;
+import geniusweb.progress.ProgressRounds;
+import geniusweb.references.Parameters;
+import geniusweb.references.ProfileRef;
+import geniusweb.references.ProtocolRef;
+import geniusweb.references.Reference;
+import tudelft.utilities.listener.DefaultListenable;
+
+public class Group21PartyTest {
+
+    private static final PartyId ME = new PartyId("group21");
+    private static final PartyId OTHER = new PartyId("other");
+    private static final PartyId FIRST = new PartyId("first");
+    private static final PartyId SECOND = new PartyId("second");
+    private static final ObjectMapper jackson = new ObjectMapper();
+
+    /**
+     * Turns of the negotiations, enough for the party to reach round 175,
+     * where it accepts by ACTime, as it counts two informs per turn.
+     */
+    private static final int TURNS = 100;
+
+    private final List<Path> files = new ArrayList<>();
+
+    @After
+    public void after() throws IOException {
+        for (Path file : files)
+            Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testAcceptBeforeBidSameDecisions() throws IOException, URISyntaxException {
+        int early = 0;
+        int late = 0;
+        for (long seed = 1; seed <= 8; seed++) {
+            List<String> actions = negotiate(seed, true);
+            assertEquals(negotiate(seed, false), actions);
+            if (actions.get(actions.size() - 1).startsWith("Accept")) {
+                if (actions.size() < 175 / 2)
+                    early++;
+                else
+                    late++;
+            }
+        }
+        // both ACNext and ACTime decided some of the negotiations
+        assertTrue(early > 0);
+        assertTrue(late > 0);
+    }
+
+    @Test
+    public void testOffersHandledAtTurn() throws IOException, URISyntaxException {
+        Group21Party party = new Group21Party();
+        Connection connection = start(party, "SAOP", TestProfiles.random(3, 4, 1), new Parameters());
+        BidSpaceIndex index = BidSpaceIndex.create(new CompiledUtilitySpace(TestProfiles.random(3, 4, 2), false));
+
+        connection.notifyListeners(new ActionDone(new Offer(FIRST, index.getBid(3))));
+        connection.notifyListeners(new ActionDone(new Offer(SECOND, index.getBid(5))));
+        connection.notifyListeners(new ActionDone(new Offer(ME, index.getBid(7))));
+        connection.notifyListeners(new ActionDone(new Offer(FIRST, index.getBid(11))));
+        // buffered until the decision
+        assertEquals(0, party.getHistory().getOpponentBids(FIRST).size());
+        assertEquals(0, party.getHistory().getOpponentBids(SECOND).size());
+
+        connection.notifyListeners(new YourTurn());
+        assertBids(party.getHistory().getOpponentBids(FIRST), index.getBid(3), index.getBid(11));
+        assertBids(party.getHistory().getOpponentBids(SECOND), index.getBid(5));
+        assertBids(party.getHistory().getOpponentBids(ME));
+        assertBids(party.getHistory().getOurBids(), ((Offer) connection.getLast()).getBid());
+    }
+
+    @Test
+    public void testOffersHandledAtVoting() throws IOException, URISyntaxException {
+        Group21Party party = new Group21Party();
+        Connection connection = start(party, "MOPAC", TestProfiles.random(3, 4, 1), new Parameters());
+        BidSpaceIndex index = BidSpaceIndex.create(new CompiledUtilitySpace(TestProfiles.random(3, 4, 2), false));
+
+        List<Offer> offers = new ArrayList<>();
+        offers.add(new Offer(SECOND, index.getBid(2)));
+        offers.add(new Offer(ME, index.getBid(4)));
+        offers.add(new Offer(FIRST, index.getBid(6)));
+        offers.add(new Offer(SECOND, index.getBid(8)));
+        Map<PartyId, Integer> powers = new HashMap<>();
+        for (Offer offer : offers) {
+            connection.notifyListeners(new ActionDone(offer));
+            powers.put(offer.getActor(), 1);
+        }
+        assertEquals(0, party.getHistory().getOpponentBids(SECOND).size());
+
+        connection.notifyListeners(new Voting(offers, powers));
+        assertBids(party.getHistory().getOpponentBids(FIRST), index.getBid(6));
+        assertBids(party.getHistory().getOpponentBids(SECOND), index.getBid(2), index.getBid(8));
+        assertBids(party.getHistory().getOpponentBids(ME));
+        assertBids(party.getHistory().getOurBids());
+        // without a bid of ours no offer is good enough to vote for
+        assertTrue(((Votes) connection.getLast()).getVotes().isEmpty());
+    }
+
+    private static void assertBids(NegotiationHistory.Track track, Bid... bids) {
+        assertEquals(bids.length, track.size());
+        for (int n = 0; n < bids.length; n++)
+            assertEquals(bids[n], track.getBid(n));
+    }
+
+    /**
+     * Negotiates against an opponent that concedes from its best bid, until
+     * the party accepts or the turns are over.
+     * @return the actions of the party
+     */
+    private List<String> negotiate(long seed, boolean acceptBeforeBid) throws IOException, URISyntaxException {
+        BidSpaceIndex theirs = BidSpaceIndex.create(
+                new CompiledUtilitySpace(TestProfiles.random(4, 5, seed + 100), false));
+        Connection connection = start(new Group21Party(), "SAOP", TestProfiles.random(4, 5, seed),
+                new Parameters().with("seed", 1).with("searchBudget", 0).with("acceptBeforeBid", acceptBeforeBid));
+
+        for (int turn = 0; turn < TURNS && !(connection.getLast() instanceof Accept); turn++) {
+            Bid bid = theirs.getBid(theirs.size() - 1 - turn * theirs.size() / (2 * TURNS));
+            connection.notifyListeners(new ActionDone(new Offer(OTHER, bid)));
+            connection.notifyListeners(new YourTurn());
+        }
+        List<String> actions = new ArrayList<>();
+        for (Action action : connection.actions)
+            actions.add(action.getClass().getSimpleName() + " " + ((ActionWithBid) action).getBid());
+        return actions;
+    }
+
+    /**
+     * @return the connection of the party, after the party received its
+     *         settings for a negotiation with the protocol, profile and
+     *         parameters
+     */
+    private Connection start(Group21Party party, String protocol, Profile profile, Parameters parameters)
+            throws IOException, URISyntaxException {
+        Path file = Files.createTempFile("group21-test", ".json");
+        files.add(file);
+        Files.write(file, jackson.writeValueAsString(profile).getBytes(StandardCharsets.UTF_8));
+
+        Connection connection = new Connection();
+        party.connect(connection);
+        connection.notifyListeners(new Settings(ME, new ProfileRef(new URI("file:" + file.toAbsolutePath())),
+                new ProtocolRef(protocol), new ProgressRounds(1000, 0, new Date(Long.MAX_VALUE)), parameters));
+        return connection;
+    }
+
+    /**
+     * Connection that keeps the actions of the party.
+     */
+    private static final class Connection extends DefaultListenable<Inform>
+            implements ConnectionEnd<Inform, Action> {
+        private final List<Action> actions = new ArrayList<>();
+
+        @Override
+        public void send(Action action) {
+            actions.add(action);
+        }
+
+        Action getLast() {
+            return actions.isEmpty() ? null : actions.get(actions.size() - 1);
+        }
+
+        @Override
+        public Reference getReference() {
+            return null;
+        }
+
+        @Override
+        public URI getRemoteURI() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Error getError() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import geniusweb.actions.Offer;
+import geniusweb.actions.PartyId;
+import geniusweb.opponentmodel.FrequencyOpponentModel;
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+
+public class IncrementalOpponentModelTest {
+
+    private static final PartyId OTHER = new PartyId("other");
+
+    private final IncrementalOpponentModel model = new IncrementalOpponentModel();
+    private LinearAdditiveUtilitySpace profile;
+    private BidSpaceIndex index;
+
+    @Before
+    public void before() {
+        profile = TestProfiles.random(4, 3, 11);
+        index = BidSpaceIndex.create(new CompiledUtilitySpace(profile, false));
+    }
+
+    @Test
+    public void testNotReady() {
+        assertFalse(model.isReady());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpdateNotReady() {
+        model.update(index.getBid(0));
+    }
+
+    @Test
+    public void testNoBidsCounted() {
+        model.init(index.getEncoder());
+        assertTrue(model.isReady());
+        assertEquals(1, model.getUtility(index.getBid(3)), 0);
+    }
+
+    @Test
+    public void testSameAsFrequencyOpponentModel() {
+        FrequencyOpponentModel expected = new FrequencyOpponentModel().with(profile.getDomain(), null);
+        model.init(index.getEncoder());
+
+        Random random = new Random(1);
+        for (int n = 0; n < 20; n++) {
+            Offer offer = new Offer(OTHER, index.getBid(random.nextInt(index.size())));
+            expected = expected.with(offer, null);
+            model.update(offer.getBid());
+
+            for (int position = 0; position < index.size(); position++) {
+                double utility = expected.getUtility(index.getBid(position)).doubleValue();
+                assertEquals(utility, model.getUtility(index.getBid(position)), 0);
+                assertEquals(utility, model.getUtility(index, position), 0);
+            }
+        }
+        assertEquals(20, model.getTotalBids());
+    }
+
+    @Test
+    public void testInternedUpdates() {
+        IncrementalOpponentModel byBid = new IncrementalOpponentModel();
+        BidInterner interner = new BidInterner(index.getEncoder());
+        byBid.init(index.getEncoder());
+        model.init(index.getEncoder());
+
+        Random random = new Random(2);
+        for (int n = 0; n < 20; n++) {
+            int position = random.nextInt(index.size());
+            byBid.update(index.getBid(position));
+            model.update(interner, interner.intern(index.getBid(position)));
+        }
+        for (int position = 0; position < index.size(); position++) {
+            int id = interner.intern(index.getBid(position));
+            assertEquals(byBid.getUtility(index, position), model.getUtility(interner, id), 1e-12);
+            assertEquals(byBid.getUtility(index, position), model.getUtility(index, position), 1e-12);
+        }
+    }
+}
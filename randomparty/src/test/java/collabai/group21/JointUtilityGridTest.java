@@ -0,0 +1,180 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JointUtilityGridTest {
+
+    private final IncrementalOpponentModel model = new IncrementalOpponentModel();
+    private final Random random = new Random(3);
+    private BidSpaceIndex index;
+    private JointUtilityGrid grid;
+
+    @Before
+    public void before() {
+        index = BidSpaceIndex.create(new CompiledUtilitySpace(TestProfiles.random(5, 6, 17), false));
+        model.init(index.getEncoder());
+        grid = new JointUtilityGrid(index, model);
+    }
+
+    @Test
+    public void testSameAsScan() {
+        for (int update = 0; update < 10; update++) {
+            model.update(index.getBid(random.nextInt(index.size())));
+            for (int query = 0; query < 20; query++) {
+                int from = random.nextInt(index.size());
+                int to = from + random.nextInt(index.size() - from + 1);
+                double low = random.nextDouble() * 0.9;
+                double high = low + 0.1;
+                assertQuery(from, to, low, high);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelSameAsScan() {
+        grid = new JointUtilityGrid(index, model, false, ForkJoinPool.commonPool(), 1);
+        for (int update = 0; update < 5; update++) {
+            model.update(index.getBid(random.nextInt(index.size())));
+            assertQuery(0, index.size(), 0.2, 0.6);
+            assertQuery(1000, 7000, 0.3, 0.5);
+        }
+    }
+
+    @Test
+    public void testSampleIsMatch() {
+        SplittableRandom splittable = new SplittableRandom(4);
+        for (int update = 0; update < 10; update++) {
+            model.update(index.getBid(random.nextInt(index.size())));
+            assertSample(0, index.size(), 0.2, 0.4, splittable);
+            assertSample(100, 200, 0.5, 0.6, splittable);
+        }
+    }
+
+    @Test
+    public void testBatchedSameAsScan() {
+        grid = new JointUtilityGrid(index, model, true, ForkJoinPool.commonPool(), 1);
+        for (int update = 0; update < 5; update++) {
+            model.update(index.getBid(random.nextInt(index.size())));
+            assertQuery(0, index.size(), 0.2, 0.6);
+            assertQuery(3, index.size() - 5, 0.4, 0.9);
+        }
+    }
+
+    @Test
+    public void testReinitialised() {
+        model.update(index.getBid(1));
+        assertQuery(0, index.size(), 0.3, 0.7);
+        model.init(index.getEncoder());
+        model.update(index.getBid(2));
+        assertQuery(0, index.size(), 0.3, 0.7);
+    }
+
+    @Test
+    public void testParallelSampleIsMatch() {
+        grid = new JointUtilityGrid(index, model, false, ForkJoinPool.commonPool(), 1);
+        SplittableRandom splittable = new SplittableRandom(4);
+        for (int update = 0; update < 5; update++) {
+            model.update(index.getBid(random.nextInt(index.size())));
+            assertSample(0, index.size(), 0.3, 0.6, splittable);
+        }
+    }
+
+    @Test
+    public void testSampleReproducible() {
+        model.update(index.getBid(7));
+        model.update(index.getBid(70));
+        SplittableRandom random1 = new SplittableRandom(12);
+        SplittableRandom random2 = new SplittableRandom(12);
+        for (int n = 0; n < 10; n++)
+            assertEquals(grid.sample(0, index.size(), 0.1, 0.9, random1, SearchBudget.UNLIMITED), grid.sample(0, index.size(), 0.1, 0.9, random2, SearchBudget.UNLIMITED));
+    }
+
+    @Test
+    public void testSampleUniform() {
+        model.update(index.getBid(0));
+        int[] matches = new int[index.size()];
+        int found = grid.query(0, 600, 0.3, 0.7, matches);
+        assertTrue(found > 1);
+
+        int[] hits = new int[index.size()];
+        SplittableRandom splittable = new SplittableRandom(1);
+        int samples = 2000 * found;
+        for (int n = 0; n < samples; n++)
+            hits[grid.sample(0, 600, 0.3, 0.7, splittable, SearchBudget.UNLIMITED)]++;
+        for (int n = 0; n < found; n++)
+            assertEquals(2000, hits[matches[n]], 300);
+    }
+
+    @Test
+    public void testSampleNoMatch() {
+        model.update(index.getBid(0));
+        assertEquals(-1, grid.sample(0, index.size(), 2, 3, new SplittableRandom(), SearchBudget.UNLIMITED));
+    }
+
+    @Test
+    public void testSampleExhaustedBudget() {
+        model.update(index.getBid(0));
+        SearchBudget budget = new SearchBudget(0);
+        assertEquals(-1, grid.sample(0, index.size(), -1, 2, new SplittableRandom(), budget));
+        assertTrue(budget.isTruncated());
+    }
+
+    @Test
+    public void testSampleUnlimitedNotTruncated() {
+        model.update(index.getBid(0));
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE);
+        assertTrue(grid.sample(0, index.size(), -1, 2, new SplittableRandom(), budget) != -1);
+        assertFalse(budget.isTruncated());
+    }
+
+    @Test
+    public void testWholeSpace() {
+        model.update(index.getBid(0));
+        assertQuery(0, index.size(), -1, 2);
+    }
+
+    @Test
+    public void testEmptyRange() {
+        model.update(index.getBid(0));
+        assertEquals(0, grid.query(10, 10, 0, 1, new int[0]));
+    }
+
+    private void assertSample(int from, int to, double low, double high, SplittableRandom splittable) {
+        int position = grid.sample(from, to, low, high, splittable, SearchBudget.UNLIMITED);
+        int[] matches = new int[to - from];
+        int found = grid.query(from, to, low, high, matches);
+        if (found == 0) {
+            assertEquals(-1, position);
+            return;
+        }
+        Arrays.sort(matches, 0, found);
+        assertTrue(Arrays.binarySearch(matches, 0, found, position) >= 0);
+    }
+
+    private void assertQuery(int from, int to, double low, double high) {
+        int[] expected = new int[to - from];
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            double utility = model.getUtility(index, position);
+            if (utility > low && utility < high)
+                expected[count++] = position;
+        }
+
+        int[] actual = new int[to - from];
+        int found = grid.query(from, to, low, high, actual);
+        Arrays.sort(actual, 0, found);
+        assertEquals(count, found);
+        for (int n = 0; n < count; n++)
+            assertEquals(expected[n], actual[n]);
+    }
+}
@@ -0,0 +1,123 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import geniusweb.actions.PartyId;
+import geniusweb.issuevalue.Bid;
+import geniusweb.issuevalue.DiscreteValue;
+
+public class NegotiationHistoryTest {
+
+    private static final PartyId OTHER = new PartyId("other");
+
+    private final CompiledUtilitySpace space = new CompiledUtilitySpace(TestProfiles.random(3, 5, 8), false);
+    private final BidSpaceIndex index = BidSpaceIndex.create(space);
+    private final BidInterner interner = new BidInterner(space.getEncoder());
+
+    private int id(Bid bid) {
+        return interner.intern(bid);
+    }
+
+    @Test
+    public void testUnbounded() {
+        NegotiationHistory history = new NegotiationHistory(interner, 0);
+        for (int n = 0; n < 100; n++)
+            history.addOpponentBid(OTHER, id(index.getBid(n)), index.getUtility(n), Move.values()[n % 4]);
+
+        NegotiationHistory.Track track = history.getOpponentBids(OTHER);
+        assertEquals(100, track.size());
+        assertEquals(0, track.getFirst());
+        for (int n = 0; n < 100; n++) {
+            assertEquals(index.getBid(n), track.getBid(n));
+            assertEquals(index.getUtility(n), track.getUtility(n), 0);
+            assertEquals(Move.values()[n % 4], track.getMove(n));
+        }
+        assertEquals(0, history.getOurBids().size());
+    }
+
+    @Test
+    public void testOpponentsApart() {
+        PartyId third = new PartyId("third");
+        NegotiationHistory history = new NegotiationHistory(interner, 4);
+        for (int n = 0; n < 10; n++)
+            history.addOpponentBid((n % 3 == 0) ? third : OTHER, id(index.getBid(n)), index.getUtility(n),
+                    Move.CONCESSION);
+
+        NegotiationHistory.Track track = history.getOpponentBids(third);
+        assertEquals(4, track.size());
+        for (int n = 0; n < 4; n++)
+            assertEquals(index.getBid(3 * n), track.getBid(n));
+        track = history.getOpponentBids(OTHER);
+        assertEquals(6, track.size());
+        assertEquals(2, track.getFirst());
+        assertEquals(index.getBid(5), track.getBid(3));
+    }
+
+    @Test
+    public void testRingBuffer() {
+        NegotiationHistory history = new NegotiationHistory(interner, 10);
+        for (int n = 0; n < 25; n++)
+            history.addOurBid(id(index.getBid(n)), index.getUtility(n));
+
+        NegotiationHistory.Track track = history.getOurBids();
+        assertEquals(25, track.size());
+        assertEquals(15, track.getFirst());
+        for (int n = 15; n < 25; n++)
+            assertEquals(index.getBid(n), track.getBid(n));
+    }
+
+    @Test
+    public void testDroppedBidsReleased() {
+        NegotiationHistory history = new NegotiationHistory(interner, 10);
+        for (int n = 0; n < 100; n++) {
+            history.addOurBid(id(index.getBid(n)), index.getUtility(n));
+            history.addOpponentBid(OTHER, id(index.getBid(n % 20)), index.getUtility(n % 20), Move.CONCESSION);
+        }
+        assertEquals(20, interner.size());
+        for (int n = 90; n < 100; n++) {
+            assertEquals(index.getBid(n), history.getOurBids().getBid(n));
+            assertEquals(index.getBid(n % 20), history.getOpponentBids(OTHER).getBid(n));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testDroppedBid() {
+        NegotiationHistory history = new NegotiationHistory(interner, 10);
+        for (int n = 0; n < 25; n++)
+            history.addOurBid(id(index.getBid(n)), index.getUtility(n));
+        history.getOurBids().getBid(14);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testEmpty() {
+        new NegotiationHistory(interner, 0).getOpponentBids(OTHER).getBid(-1);
+    }
+
+    @Test
+    public void testPartialBid() {
+        NegotiationHistory history = new NegotiationHistory(interner, 2);
+        Bid partial = new Bid(Collections.singletonMap("issue0", new DiscreteValue("value1")));
+        history.addOurBid(id(partial), space.getUtility(partial));
+        assertEquals(partial, history.getOurBids().getBid(0));
+        history.addOurBid(id(index.getBid(0)), 0);
+        history.addOurBid(id(index.getBid(1)), 0);
+        assertEquals(index.getBid(0), history.getOurBids().getBid(1));
+    }
+
+    @Test
+    public void testReevaluate() {
+        NegotiationHistory history = new NegotiationHistory(interner, 0);
+        Bid partial = new Bid(Collections.singletonMap("issue0", new DiscreteValue("value1")));
+        history.addOurBid(id(index.getBid(3)), 0);
+        history.addOurBid(id(partial), 0);
+
+        CompiledUtilitySpace changed = new CompiledUtilitySpace(TestProfiles.random(3, 5, 9), false);
+        history.reevaluate(changed);
+        assertEquals(changed.getUtility(index.getBid(3)), history.getOurBids().getUtility(0), 0);
+        assertEquals(changed.getUtility(partial), history.getOurBids().getUtility(1), 0);
+    }
+}
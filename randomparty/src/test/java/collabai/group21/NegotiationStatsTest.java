@@ -0,0 +1,47 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NegotiationStatsTest {
+
+    private final NegotiationStats stats = new NegotiationStats();
+    private final Random random = new Random(5);
+
+    @Test
+    public void testEmpty() {
+        assertTrue(Double.isNaN(stats.getOurAverageUtility()));
+        assertEquals(0, stats.getOpponentBidCount());
+        assertEquals(0, stats.getSumOfOpponentDeltas(), 0);
+    }
+
+    @Test
+    public void testSameAsRecomputing() {
+        List<Double> ours = new ArrayList<>();
+        List<Double> theirs = new ArrayList<>();
+        for (int n = 0; n < 1000; n++) {
+            double ourUtility = random.nextDouble();
+            double theirUtility = random.nextDouble();
+            ours.add(ourUtility);
+            theirs.add(theirUtility);
+            stats.addOurBid(ourUtility);
+            stats.addOpponentBid(theirUtility);
+
+            double sum = ours.stream().mapToDouble(Double::doubleValue).sum();
+            assertEquals(sum / ours.size(), stats.getOurAverageUtility(), 0);
+
+            double[] utils = theirs.stream().mapToDouble(Double::doubleValue).toArray();
+            double sumOfDeltas = 0;
+            for (int i = 1; i < utils.length; i++)
+                sumOfDeltas += utils[i] - utils[i - 1];
+            assertEquals(sumOfDeltas, stats.getSumOfOpponentDeltas(), 0);
+            assertEquals(utils.length, stats.getOpponentBidCount());
+        }
+    }
+}
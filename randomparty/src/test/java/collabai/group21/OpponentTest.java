@@ -0,0 +1,81 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import geniusweb.actions.PartyId;
+
+public class OpponentTest {
+
+    private static final PartyId OTHER = new PartyId("other");
+
+    private final CompiledUtilitySpace space = new CompiledUtilitySpace(TestProfiles.random(3, 4, 6), false);
+    private final BidSpaceIndex index = BidSpaceIndex.create(space);
+    private final BidInterner interner = new BidInterner(space.getEncoder());
+    private final NegotiationHistory history = new NegotiationHistory(interner, 0);
+
+    private void receive(Opponent opponent, int position) {
+        opponent.receive(interner, interner.intern(index.getBid(position)), index.getUtility(position),
+                space.getEncoder());
+    }
+
+    @Test
+    public void testFirstBidInitialisesModel() {
+        Opponent opponent = new Opponent(history.getOpponentBids(OTHER));
+        assertEquals(-1, opponent.getUtility(index.getBid(0)), 0);
+        assertEquals(Move.SELFISH, opponent.getLastMove());
+
+        receive(opponent, 10);
+        assertTrue(opponent.getModel().isReady());
+        assertEquals(0, opponent.getModel().getTotalBids());
+        assertEquals(0.01, opponent.getOurDelta(), 0);
+        assertEquals(1, history.getOpponentBids(OTHER).size());
+    }
+
+    @Test
+    public void testReceive() {
+        Opponent opponent = new Opponent(history.getOpponentBids(OTHER));
+        IncrementalOpponentModel expected = new IncrementalOpponentModel();
+        expected.init(space.getEncoder());
+        int[] positions = { 5, 60, 20, 63, 0, 33 };
+        for (int n = 0; n < positions.length; n++) {
+            receive(opponent, positions[n]);
+            if (n > 0) {
+                expected.update(index.getBid(positions[n]));
+                assertEquals(index.getUtility(positions[n]) - index.getUtility(positions[n - 1]),
+                        opponent.getOurDelta(), 1e-12);
+            }
+        }
+        for (int position = 0; position < index.size(); position++)
+            assertEquals(expected.getUtility(index, position), opponent.getUtility(index.getBid(position)), 1e-12);
+        assertEquals(positions.length, opponent.getStats().getOpponentBidCount());
+        assertEquals(index.getUtility(33) - index.getUtility(5), opponent.getStats().getSumOfOpponentDeltas(), 1e-12);
+    }
+
+    @Test
+    public void testOpponentsApart() {
+        Opponent first = new Opponent(history.getOpponentBids(OTHER));
+        Opponent second = new Opponent(history.getOpponentBids(new PartyId("third")));
+        for (int n = 0; n < 5; n++)
+            receive(first, n);
+        receive(second, 40);
+
+        assertEquals(4, first.getModel().getTotalBids());
+        assertEquals(0, second.getModel().getTotalBids());
+        assertEquals(1, second.getBids().size());
+        assertFalse(first.getStats().getOpponentBidCount() == second.getStats().getOpponentBidCount());
+    }
+
+    @Test
+    public void testGridPerIndex() {
+        Opponent opponent = new Opponent(history.getOpponentBids(OTHER));
+        JointUtilityGrid grid = opponent.getGrid(index, null, Integer.MAX_VALUE, false);
+        assertSame(grid, opponent.getGrid(index, null, Integer.MAX_VALUE, false));
+        assertNotSame(grid, opponent.getGrid(BidSpaceIndex.create(space), null, Integer.MAX_VALUE, false));
+    }
+}
@@ -0,0 +1,67 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import geniusweb.progress.ProgressTime;
+
+public class SearchBudgetTest {
+
+    @Test
+    public void testExhausted() {
+        SearchBudget budget = new SearchBudget(0);
+        assertFalse(budget.isTruncated());
+        assertTrue(budget.isExhausted());
+        assertTrue(budget.isTruncated());
+    }
+
+    @Test
+    public void testUnlimited() {
+        assertFalse(SearchBudget.UNLIMITED.isExhausted());
+        assertFalse(SearchBudget.UNLIMITED.isTruncated());
+    }
+
+    @Test
+    public void testCancel() {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE);
+        budget.cancel();
+        assertTrue(budget.isExhausted());
+        assertFalse(budget.isTruncated());
+    }
+
+    @Test
+    public void testTimerWithoutProgress() {
+        assertFalse(new SearchBudget.Timer(0.5).startTurn(null).isExhausted());
+    }
+
+    @Test
+    public void testTimerDisabled() {
+        ProgressTime progress = new ProgressTime(10000L, new Date());
+        assertEquals(Long.MAX_VALUE, new SearchBudget.Timer(0).startTurn(progress).getBudgetNanos());
+    }
+
+    @Test
+    public void testTimerSplitsRemainingTime() {
+        ProgressTime progress = new ProgressTime(20000L, new Date());
+        SearchBudget budget = new SearchBudget.Timer(0.5).startTurn(progress);
+        // 0.5 of the 20 seconds left, spread over the default number of turns
+        assertEquals(500e6, budget.getBudgetNanos(), 10e6);
+    }
+
+    @Test
+    public void testPlannedTurnNotCounted() {
+        ProgressTime progress = new ProgressTime(20000L, new Date());
+        SearchBudget.Timer timer = new SearchBudget.Timer(0.5);
+        timer.planTurn(progress);
+        timer.planTurn(progress);
+        assertEquals(0, timer.getTurns());
+        timer.startTurn(progress);
+        timer.countTurn();
+        assertEquals(2, timer.getTurns());
+    }
+}
@@ -0,0 +1,57 @@
+package collabai.group21;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import geniusweb.issuevalue.DiscreteValue;
+import geniusweb.issuevalue.DiscreteValueSet;
+import geniusweb.issuevalue.Domain;
+import geniusweb.issuevalue.ValueSet;
+import geniusweb.profile.utilityspace.DiscreteValueSetUtilities;
+import geniusweb.profile.utilityspace.LinearAdditiveUtilitySpace;
+import geniusweb.profile.utilityspace.ValueSetUtilities;
+
+/**
+ * Builds random discrete profiles for the tests.
+ */
+class TestProfiles {
+
+    /**
+     * @param issues number of issues
+     * @param values number of values of every issue
+     * @param seed   seed for the weights and value utilities
+     * @return a profile named "test" on a domain named "random"
+     */
+    static LinearAdditiveUtilitySpace random(int issues, int values, long seed) {
+        Random random = new Random(seed);
+        Map<String, ValueSet> issuesValues = new HashMap<>();
+        Map<String, ValueSetUtilities> utilities = new HashMap<>();
+        Map<String, BigDecimal> weights = new HashMap<>();
+
+        BigDecimal remaining = BigDecimal.ONE;
+        for (int i = 0; i < issues; i++) {
+            String issue = "issue" + i;
+            List<DiscreteValue> issueValues = new ArrayList<>();
+            Map<DiscreteValue, BigDecimal> valueUtilities = new HashMap<>();
+            for (int v = 0; v < values; v++) {
+                DiscreteValue value = new DiscreteValue("value" + v);
+                issueValues.add(value);
+                valueUtilities.put(value, BigDecimal.valueOf(random.nextInt(101), 2));
+            }
+            issuesValues.put(issue, new DiscreteValueSet(issueValues));
+            utilities.put(issue, new DiscreteValueSetUtilities(valueUtilities));
+
+            BigDecimal weight = (i == issues - 1) ? remaining
+                    : remaining.multiply(BigDecimal.valueOf(random.nextInt(50) + 1, 2)).setScale(2, RoundingMode.DOWN);
+            weights.put(issue, weight);
+            remaining = remaining.subtract(weight);
+        }
+
+        return new LinearAdditiveUtilitySpace(new Domain("random", issuesValues), "test", utilities, weights, null);
+    }
+}
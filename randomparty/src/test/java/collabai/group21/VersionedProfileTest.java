@@ -0,0 +1,105 @@
+package collabai.group21;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import geniusweb.profile.Profile;
+import geniusweb.profile.utilityspace.LinearAdditive;
+import geniusweb.profileconnection.ProfileInterface;
+import tudelft.utilities.logging.Reporter;
+
+public class VersionedProfileTest {
+
+    private final List<Runnable> pending = new ArrayList<>();
+    private final List<ProfileState> previousStates = new ArrayList<>();
+    private Profile profile;
+    private VersionedProfile profiles;
+
+    @Before
+    public void before() {
+        profile = TestProfiles.random(3, 4, 1);
+        ProfileInterface connection = new ProfileInterface() {
+            @Override
+            public Profile getProfile() {
+                return profile;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Reporter reporter = new Reporter() {
+            @Override
+            public void log(Level level, String msg) {
+            }
+
+            @Override
+            public void log(Level level, String msg, Throwable thrown) {
+                throw new AssertionError(msg, thrown);
+            }
+        };
+        profiles = new VersionedProfile(connection, this::build, pending::add, reporter);
+    }
+
+    private ProfileState build(LinearAdditive profile, ProfileState previous) {
+        previousStates.add(previous);
+        return new ProfileState(profile, null, null, null, null, 0);
+    }
+
+    @Test
+    public void testFirstProfileBuiltDirectly() throws Exception {
+        ProfileState state = profiles.get();
+        assertSame(profile, state.getProfile());
+        assertEquals(1, profiles.getVersion());
+        assertEquals(1, previousStates.size());
+        assertNull(previousStates.get(0));
+    }
+
+    @Test
+    public void testUnchangedProfile() throws Exception {
+        ProfileState state = profiles.get();
+        assertSame(state, profiles.get());
+        profile = TestProfiles.random(3, 4, 1);
+        assertSame(state, profiles.get());
+        assertEquals(0, pending.size());
+        assertEquals(1, previousStates.size());
+    }
+
+    @Test
+    public void testChangedProfileBuiltInBackground() throws Exception {
+        ProfileState first = profiles.get();
+        profile = TestProfiles.random(3, 4, 2);
+        assertSame(first, profiles.get());
+        assertEquals(1, pending.size());
+
+        pending.get(0).run();
+        ProfileState second = profiles.get();
+        assertSame(profile, second.getProfile());
+        assertSame(first, previousStates.get(1));
+        assertEquals(2, profiles.getVersion());
+        assertEquals(1, pending.size());
+    }
+
+    @Test
+    public void testLateBuildDoesNotReplaceNewer() throws Exception {
+        profiles.get();
+        profile = TestProfiles.random(3, 4, 2);
+        profiles.get();
+        profile = TestProfiles.random(3, 4, 3);
+        profiles.get();
+        assertEquals(2, pending.size());
+
+        pending.get(1).run();
+        pending.get(0).run();
+        assertSame(profile, profiles.get().getProfile());
+        assertEquals(3, profiles.getVersion());
+    }
+}